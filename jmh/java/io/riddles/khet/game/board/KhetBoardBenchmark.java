@@ -0,0 +1,149 @@
+/*
+ *  Copyright 2017 riddles.io (developers@riddles.io)
+ *
+ *      Licensed under the Apache License, Version 2.0 (the "License");
+ *      you may not use this file except in compliance with the License.
+ *      You may obtain a copy of the License at
+ *
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *      Unless required by applicable law or agreed to in writing, software
+ *      distributed under the License is distributed on an "AS IS" BASIS,
+ *      WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *      See the License for the specific language governing permissions and
+ *      limitations under the License.
+ *
+ *      For the full copyright and license information, please view the LICENSE
+ *      file that was distributed with this source code.
+ */
+
+package io.riddles.khet.game.board;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+import io.riddles.khet.engine.KhetEngine;
+import io.riddles.khet.game.move.KhetMoveMove;
+import io.riddles.khet.game.move.KhetTurnMove;
+import io.riddles.khet.game.move.TurnType;
+
+/**
+ * io.riddles.khet.game.board.KhetBoardBenchmark - Created on 18-10-26
+ *
+ * Benchmarks for the KhetBoard operations the engine performs every turn.
+ * Copying is covered by KhetBoardCopyBenchmark.
+ *
+ * @author Jim van Eeden - jim@riddles.io
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class KhetBoardBenchmark {
+
+    private String boardString;
+    private KhetBoard board;
+    private KhetBoard scratchBoard;
+    private KhetCoordinate scarab;
+    private KhetCoordinate sphinx;
+    private KhetCoordinate nextToSphinx;
+    private KhetMoveMove invalidMove;
+    private int sphinxClockwise;
+    private int sphinxCounterClockwise;
+    private int[] moves;
+    private int moveCount;
+
+    @Setup
+    public void setup() {
+        this.boardString = KhetEngine.getStartingBoardString();
+        this.board = new KhetBoard(10, 8, 2, this.boardString);
+        this.scratchBoard = new KhetBoard(this.board);
+        this.scarab = KhetCoordinate.of(4, 3);
+        this.sphinx = KhetCoordinate.of(0, 0);
+        this.nextToSphinx = KhetCoordinate.of(1, 0);
+        this.invalidMove = new KhetMoveMove(this.sphinx, this.nextToSphinx);
+        this.sphinxClockwise = KhetMoveGenerator.encodeTurn(0, TurnType.CLOCKWISE);
+        this.sphinxCounterClockwise = KhetMoveGenerator.encodeTurn(0, TurnType.COUNTERCLOCKWISE);
+        this.moves = new int[200];
+        this.moveCount = KhetMoveGenerator.generateMoves(this.board, 0, this.moves);
+    }
+
+    @Benchmark
+    public void setFieldsFromString() {
+        this.scratchBoard.setFieldsFromString(this.boardString);
+    }
+
+    @Benchmark
+    public String toStringCached() {
+        return this.board.toString();
+    }
+
+    @Benchmark
+    public String toStringAfterTurn() {
+        this.scratchBoard.processMove(new KhetTurnMove(this.scarab, TurnType.CLOCKWISE), 0);
+        return this.scratchBoard.toString();
+    }
+
+    @Benchmark
+    public KhetTurnMove processMove() {
+        KhetTurnMove move = new KhetTurnMove(this.scarab, TurnType.CLOCKWISE);
+        this.scratchBoard.processMove(move, 0);
+        return move;
+    }
+
+    @Benchmark
+    public KhetMoveMove processInvalidMove() {
+        KhetMoveMove move = new KhetMoveMove(this.sphinx, this.nextToSphinx);
+        this.scratchBoard.processMove(move, 0);  // creates the exception
+        return move;
+    }
+
+    @Benchmark
+    public KhetMoveResult validateInvalidMove() {
+        return this.scratchBoard.validateMove(this.invalidMove, 0);
+    }
+
+    @Benchmark
+    public KhetBoard fireLaser() {
+        this.board.fireLaser(0);  // nothing is destroyed on the starting board, so the previous path is reused
+        return this.board;
+    }
+
+    @Benchmark
+    public KhetBoard fireLaserFullTrace() {
+        // turning the sphinx there and back changes the first square of the path, so nothing is reused
+        this.scratchBoard.applyMove(this.sphinxClockwise);
+        this.scratchBoard.applyMove(this.sphinxCounterClockwise);
+        this.scratchBoard.fireLaser(0);
+        return this.scratchBoard;
+    }
+
+    @Benchmark
+    public long makeAndUnmakeAllMoves() {
+        long undos = 0;
+        for (int i = 0; i < this.moveCount; i++) {
+            long undo = this.scratchBoard.makeMove(this.moves[i], 0);
+            this.scratchBoard.unmakeMove(undo);
+            undos += undo;
+        }
+
+        return undos;
+    }
+
+    @Benchmark
+    public int[] countPlayerPieces() {
+        return this.board.countPlayerPieces();
+    }
+
+    @Benchmark
+    public ArrayList<Integer> getNoPharaohPlayerIds() {
+        return this.board.getNoPharaohPlayerIds();
+    }
+}
@@ -0,0 +1,64 @@
+/*
+ *  Copyright 2017 riddles.io (developers@riddles.io)
+ *
+ *      Licensed under the Apache License, Version 2.0 (the "License");
+ *      you may not use this file except in compliance with the License.
+ *      You may obtain a copy of the License at
+ *
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *      Unless required by applicable law or agreed to in writing, software
+ *      distributed under the License is distributed on an "AS IS" BASIS,
+ *      WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *      See the License for the specific language governing permissions and
+ *      limitations under the License.
+ *
+ *      For the full copyright and license information, please view the LICENSE
+ *      file that was distributed with this source code.
+ */
+
+package io.riddles.khet.game.board;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+import io.riddles.khet.engine.KhetEngine;
+
+/**
+ * io.riddles.khet.game.board.KhetBoardCopyBenchmark - Created on 18-10-26
+ *
+ * Compares the structural copy constructor with copying a board
+ * through its string representation, which is what the copy
+ * constructor used to do.
+ *
+ * @author Jim van Eeden - jim@riddles.io
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class KhetBoardCopyBenchmark {
+
+    private KhetBoard board;
+
+    @Setup
+    public void setup() {
+        this.board = new KhetBoard(10, 8, 2, KhetEngine.getStartingBoardString());
+    }
+
+    @Benchmark
+    public KhetBoard copyConstructor() {
+        return new KhetBoard(this.board);
+    }
+
+    @Benchmark
+    public KhetBoard stringRoundTrip() {
+        return new KhetBoard(this.board.getWidth(), this.board.getHeight(), 2, this.board.toString());
+    }
+}
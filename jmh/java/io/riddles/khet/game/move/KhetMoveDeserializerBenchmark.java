@@ -0,0 +1,59 @@
+/*
+ *  Copyright 2017 riddles.io (developers@riddles.io)
+ *
+ *      Licensed under the Apache License, Version 2.0 (the "License");
+ *      you may not use this file except in compliance with the License.
+ *      You may obtain a copy of the License at
+ *
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *      Unless required by applicable law or agreed to in writing, software
+ *      distributed under the License is distributed on an "AS IS" BASIS,
+ *      WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *      See the License for the specific language governing permissions and
+ *      limitations under the License.
+ *
+ *      For the full copyright and license information, please view the LICENSE
+ *      file that was distributed with this source code.
+ */
+
+package io.riddles.khet.game.move;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * io.riddles.khet.game.move.KhetMoveDeserializerBenchmark - Created on 18-10-26
+ *
+ * Benchmarks for parsing bot responses.
+ *
+ * @author Jim van Eeden - jim@riddles.io
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class KhetMoveDeserializerBenchmark {
+
+    private KhetMoveDeserializer deserializer = new KhetMoveDeserializer();
+
+    @Benchmark
+    public KhetMove traverseMoveMove() {
+        return this.deserializer.traverse("move 4,3 3,2");
+    }
+
+    @Benchmark
+    public KhetMove traverseTurnMove() {
+        return this.deserializer.traverse("turn 0,0 ccw");
+    }
+
+    @Benchmark
+    public KhetMove traverseInvalid() {
+        return this.deserializer.traverse("move 4,3 x,2");
+    }
+}
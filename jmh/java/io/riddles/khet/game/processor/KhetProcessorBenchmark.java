@@ -0,0 +1,101 @@
+/*
+ *  Copyright 2017 riddles.io (developers@riddles.io)
+ *
+ *      Licensed under the Apache License, Version 2.0 (the "License");
+ *      you may not use this file except in compliance with the License.
+ *      You may obtain a copy of the License at
+ *
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *      Unless required by applicable law or agreed to in writing, software
+ *      distributed under the License is distributed on an "AS IS" BASIS,
+ *      WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *      See the License for the specific language governing permissions and
+ *      limitations under the License.
+ *
+ *      For the full copyright and license information, please view the LICENSE
+ *      file that was distributed with this source code.
+ */
+
+package io.riddles.khet.game.processor;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+import io.riddles.javainterface.configuration.Configuration;
+import io.riddles.javainterface.game.player.PlayerProvider;
+import io.riddles.javainterface.io.BotIOHandler;
+import io.riddles.khet.engine.KhetEngine;
+import io.riddles.khet.game.board.KhetBoard;
+import io.riddles.khet.game.player.KhetPlayer;
+import io.riddles.khet.game.state.KhetPlayerState;
+import io.riddles.khet.game.state.KhetState;
+
+/**
+ * io.riddles.khet.game.processor.KhetProcessorBenchmark - Created on 18-10-26
+ *
+ * Benchmark for a full round of KhetProcessor.createNextState. The stub
+ * players keep turning their scarabs, which is always a legal move.
+ *
+ * @author Jim van Eeden - jim@riddles.io
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class KhetProcessorBenchmark {
+
+    private KhetProcessor processor;
+    private KhetState initialState;
+
+    @Setup
+    public void setup() {
+        Configuration configuration = new Configuration();
+        configuration.put("maxRounds", 100);
+        KhetEngine.configuration = configuration;
+
+        PlayerProvider<KhetPlayer> playerProvider = new PlayerProvider<>();
+        playerProvider.add(createStubPlayer(0, "turn 4,3 cw"));
+        playerProvider.add(createStubPlayer(1, "turn 4,4 cw"));
+
+        ArrayList<KhetPlayerState> playerStates = new ArrayList<>();
+        playerStates.add(new KhetPlayerState(0));
+        playerStates.add(new KhetPlayerState(1));
+
+        KhetBoard board = new KhetBoard(10, 8, 2, KhetEngine.getStartingBoardString());
+
+        this.processor = new KhetProcessor(playerProvider);
+        this.initialState = new KhetState(playerStates, board);
+        this.initialState.updatePlayerStates();
+    }
+
+    @Benchmark
+    public KhetState createNextState() {
+        return this.processor.createNextState(this.initialState, 1);
+    }
+
+    private KhetPlayer createStubPlayer(int id, String response) {
+        KhetPlayer player = new KhetPlayer(id);
+        player.setIoHandler(new BotIOHandler(id) {
+            @Override
+            public void sendMessage(String message) {}
+
+            @Override
+            public String sendRequest(String message) {
+                return response;
+            }
+
+            @Override
+            public void sendWarning(String warning) {}
+        });
+
+        return player;
+    }
+}
@@ -0,0 +1,76 @@
+/*
+ *  Copyright 2017 riddles.io (developers@riddles.io)
+ *
+ *      Licensed under the Apache License, Version 2.0 (the "License");
+ *      you may not use this file except in compliance with the License.
+ *      You may obtain a copy of the License at
+ *
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *      Unless required by applicable law or agreed to in writing, software
+ *      distributed under the License is distributed on an "AS IS" BASIS,
+ *      WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *      See the License for the specific language governing permissions and
+ *      limitations under the License.
+ *
+ *      For the full copyright and license information, please view the LICENSE
+ *      file that was distributed with this source code.
+ */
+
+package io.riddles.khet.game.state;
+
+import org.json.JSONObject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+import io.riddles.khet.engine.KhetEngine;
+import io.riddles.khet.game.board.KhetBoard;
+import io.riddles.khet.game.board.KhetCoordinate;
+import io.riddles.khet.game.move.KhetTurnMove;
+import io.riddles.khet.game.move.TurnType;
+
+/**
+ * io.riddles.khet.game.state.KhetStateSerializerBenchmark - Created on 18-10-26
+ *
+ * Benchmark for serializing a state with a move and a laser path.
+ *
+ * @author Jim van Eeden - jim@riddles.io
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class KhetStateSerializerBenchmark {
+
+    private KhetStateSerializer serializer;
+    private KhetState state;
+
+    @Setup
+    public void setup() {
+        ArrayList<KhetPlayerState> playerStates = new ArrayList<>();
+        playerStates.add(new KhetPlayerState(0));
+        playerStates.add(new KhetPlayerState(1));
+
+        KhetBoard board = new KhetBoard(10, 8, 2, KhetEngine.getStartingBoardString());
+        KhetTurnMove move = new KhetTurnMove(KhetCoordinate.of(4, 3), TurnType.CLOCKWISE);
+        board.processMove(move, 0);
+        board.fireLaser(0);
+
+        this.serializer = new KhetStateSerializer();
+        this.state = new KhetState(playerStates, board);
+        this.state.getPlayerStateById(0).setMove(move);
+        this.state.updatePlayerStates();
+    }
+
+    @Benchmark
+    public JSONObject traverseToJson() {
+        return this.serializer.traverseToJson(this.state);
+    }
+}
@@ -0,0 +1,49 @@
+/*
+ *  Copyright 2017 riddles.io (developers@riddles.io)
+ *
+ *      Licensed under the Apache License, Version 2.0 (the "License");
+ *      you may not use this file except in compliance with the License.
+ *      You may obtain a copy of the License at
+ *
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *      Unless required by applicable law or agreed to in writing, software
+ *      distributed under the License is distributed on an "AS IS" BASIS,
+ *      WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *      See the License for the specific language governing permissions and
+ *      limitations under the License.
+ *
+ *      For the full copyright and license information, please view the LICENSE
+ *      file that was distributed with this source code.
+ */
+
+package io.riddles.khet.bot;
+
+import io.riddles.khet.game.board.KhetBoard;
+
+/**
+ * io.riddles.khet.bot.KhetBot - Created on 18-10-26
+ *
+ * A bot that runs inside the engine JVM instead of as a separate process.
+ *
+ * @author Jim van Eeden - jim@riddles.io
+ */
+public interface KhetBot {
+
+    /**
+     * Called every time the engine requests a move
+     * @param board Current board, owned by the bot so it may be changed
+     * @param botId Player id of the bot
+     * @param round Current round number
+     * @return Move in the same format as a bot process would send it,
+     * e.g. "move 4,3 3,2" or "turn 0,0 ccw"
+     */
+    String getMove(KhetBoard board, int botId, int round);
+
+    /**
+     * Called when the engine sends the time settings, before the first move
+     * @param timebank Maximum time in ms the bot has for a move, 0 if not sent yet
+     * @param timePerMove Time in ms added to the timebank every move, 0 if not sent yet
+     */
+    default void setTime(int timebank, int timePerMove) {}
+}
@@ -0,0 +1,60 @@
+/*
+ *  Copyright 2017 riddles.io (developers@riddles.io)
+ *
+ *      Licensed under the Apache License, Version 2.0 (the "License");
+ *      you may not use this file except in compliance with the License.
+ *      You may obtain a copy of the License at
+ *
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *      Unless required by applicable law or agreed to in writing, software
+ *      distributed under the License is distributed on an "AS IS" BASIS,
+ *      WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *      See the License for the specific language governing permissions and
+ *      limitations under the License.
+ *
+ *      For the full copyright and license information, please view the LICENSE
+ *      file that was distributed with this source code.
+ */
+
+package io.riddles.khet.bot;
+
+import java.util.Random;
+
+import io.riddles.khet.game.board.KhetBoard;
+import io.riddles.khet.game.board.KhetMoveGenerator;
+
+/**
+ * io.riddles.khet.bot.KhetRandomBot - Created on 18-10-26
+ *
+ * Plays a random legal move every turn.
+ *
+ * @author Jim van Eeden - jim@riddles.io
+ */
+public class KhetRandomBot implements KhetBot {
+
+    private Random random;
+    private int[] moves;
+
+    public KhetRandomBot() {
+        this(new Random());
+    }
+
+    public KhetRandomBot(Random random) {
+        this.random = random;
+        this.moves = new int[0];
+    }
+
+    @Override
+    public String getMove(KhetBoard board, int botId, int round) {
+        int maxMoves = board.getWidth() * board.getHeight() * KhetMoveGenerator.MAX_MOVES_PER_PIECE;
+        if (this.moves.length < maxMoves) {
+            this.moves = new int[maxMoves];
+        }
+
+        int moveCount = KhetMoveGenerator.generateMoves(board, botId, this.moves);
+        int move = this.moves[this.random.nextInt(moveCount)];
+
+        return KhetMoveGenerator.toString(move, board.getWidth());
+    }
+}
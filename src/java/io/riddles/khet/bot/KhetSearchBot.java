@@ -0,0 +1,583 @@
+/*
+ *  Copyright 2017 riddles.io (developers@riddles.io)
+ *
+ *      Licensed under the Apache License, Version 2.0 (the "License");
+ *      you may not use this file except in compliance with the License.
+ *      You may obtain a copy of the License at
+ *
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *      Unless required by applicable law or agreed to in writing, software
+ *      distributed under the License is distributed on an "AS IS" BASIS,
+ *      WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *      See the License for the specific language governing permissions and
+ *      limitations under the License.
+ *
+ *      For the full copyright and license information, please view the LICENSE
+ *      file that was distributed with this source code.
+ */
+
+package io.riddles.khet.bot;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import io.riddles.khet.engine.KhetEngine;
+import io.riddles.khet.game.board.KhetBoard;
+import io.riddles.khet.game.board.KhetMoveGenerator;
+import io.riddles.khet.game.board.piece.KhetPiece;
+import io.riddles.khet.game.board.piece.KhetPieceType;
+
+/**
+ * io.riddles.khet.bot.KhetSearchBot - Created on 18-10-26
+ *
+ * Reference bot for ladder calibration and regression tests. Runs an
+ * iterative-deepening alpha-beta search where one ply is a move plus the
+ * laser shot of the same player, like in KhetPerft. With more than one
+ * thread, the root moves of every iteration are split over the threads of
+ * a fork-join pool of the bot, which share one transposition table. Bots
+ * created without a thread count search on the calling thread, so matches
+ * played in parallel by KhetTournament don't compete for the same pool.
+ * When the time per move runs out, the best move of the deepest finished
+ * iteration is played. Only plays 2 player games.
+ *
+ * Usage: KhetSearchBot [timePerMove] [--threads=n] [--player=id]
+ *                      [--width=w --height=h --board=boardString]
+ *
+ * @author Jim van Eeden - jim@riddles.io
+ */
+public class KhetSearchBot implements KhetBot {
+
+    public static final int DEFAULT_TIME_PER_MOVE = 100;  // ms, used until the engine sends time_per_move
+    public static final int DEFAULT_TABLE_SIZE_BITS = 18;  // 4 MB
+
+    public static final int WIN_SCORE = 100000;  // minus the plies until the win
+    private static final int INFINITY = WIN_SCORE + 1;
+    private static final int MAX_DEPTH = 64;
+    private static final int TIME_MARGIN = 10;  // ms left for sending the move
+    private static final int NODES_PER_TIME_CHECK = 64;  // a node costs microseconds, so checking often is cheap
+    private static final int NO_MOVE = 0;  // never a legal move, from and to would be the same square
+
+    // by KhetPieceType ordinal, losing the pharaoh ends the game so it has no material value
+    private static final int[] PIECE_VALUES = {0, 0, 100, 150, 0};
+    private static final int PHARAOH_THREAT = 500;
+
+    private int timePerMove;
+    private ForkJoinPool pool;
+    private KhetTranspositionTable table;
+    private Searcher[] searchers;
+    private KhetSearchResult lastResult;
+
+    public KhetSearchBot() {
+        this(DEFAULT_TIME_PER_MOVE);
+    }
+
+    public KhetSearchBot(int timePerMove) {
+        this(timePerMove, 1);
+    }
+
+    /**
+     * @param timePerMove Time in ms the bot may use for every move
+     * @param threads Search threads, more than 1 creates a pool for this bot
+     */
+    public KhetSearchBot(int timePerMove, int threads) {
+        this(timePerMove, createPool(threads), new KhetTranspositionTable(DEFAULT_TABLE_SIZE_BITS));
+    }
+
+    /**
+     * @param timePerMove Time in ms the bot may use for every move
+     * @param pool Pool to search on, one search thread per thread of the pool,
+     *             or null to search on the calling thread
+     * @param table Table shared by the search threads, kept between moves
+     */
+    public KhetSearchBot(int timePerMove, ForkJoinPool pool, KhetTranspositionTable table) {
+        this.timePerMove = timePerMove;
+        this.pool = pool;
+        this.table = table;
+        this.searchers = new Searcher[pool != null ? pool.getParallelism() : 1];
+
+        for (int i = 0; i < this.searchers.length; i++) {
+            this.searchers[i] = new Searcher(table);
+        }
+    }
+
+    @Override
+    public String getMove(KhetBoard board, int botId, int round) {
+        KhetSearchResult result = search(board, botId);
+        return KhetMoveGenerator.toString(result.getMove(), board.getWidth());
+    }
+
+    /**
+     * Uses the time per move for every move, so the timebank never runs out
+     */
+    @Override
+    public void setTime(int timebank, int timePerMove) {
+        if (timePerMove <= 0) return;
+
+        this.timePerMove = timebank > 0 ? Math.min(timePerMove, timebank) : timePerMove;
+    }
+
+    /**
+     * @return Result of the last search, or null if the bot hasn't searched yet
+     */
+    public KhetSearchResult getLastResult() {
+        return this.lastResult;
+    }
+
+    /**
+     * Searches the best move within the time per move. The first iteration
+     * always finishes, so a move is found even when the time is very short.
+     * @param board Board to search, is not changed
+     * @param playerId Player to move
+     * @return Best move with the depth reached and the node count
+     */
+    public KhetSearchResult search(KhetBoard board, int playerId) {
+        return search(board, playerId, MAX_DEPTH);
+    }
+
+    /**
+     * Same as search, but stops after given depth if there is time left
+     * @param board Board to search, is not changed
+     * @param playerId Player to move
+     * @param maxDepth Deepest iteration in plies, at most 64
+     * @return Best move with the depth reached and the node count
+     */
+    public KhetSearchResult search(KhetBoard board, int playerId, int maxDepth) {
+        long start = System.nanoTime();
+
+        if (maxDepth < 1 || maxDepth > MAX_DEPTH) {
+            throw new IllegalArgumentException(String.format("Invalid search depth %d", maxDepth));
+        }
+        if (board.getPlayerCount() != 2) {
+            throw new IllegalArgumentException(
+                    String.format("Can't search a %d player game", board.getPlayerCount()));
+        }
+
+        SearchControl control = new SearchControl(
+                start + Math.max(this.timePerMove - TIME_MARGIN, 1) * 1000000L);
+
+        int[] moves = new int[board.getWidth() * board.getHeight() * KhetMoveGenerator.MAX_MOVES_PER_PIECE];
+        int moveCount = KhetMoveGenerator.generateMoves(board, playerId, moves);
+        if (moveCount == 0) {
+            throw new RuntimeException(String.format("Player %d has no legal moves", playerId));
+        }
+
+        int[] scores = new int[moveCount];
+        for (Searcher searcher : this.searchers) {
+            searcher.reset(board, control);
+        }
+
+        int bestMove = moves[0];
+        int bestScore = 0;
+        int depthReached = 0;
+
+        for (int depth = 1; depth <= maxDepth; depth++) {
+            control.stopAllowed = depth > 1;
+            Iteration iteration = new Iteration(this.searchers, moves, scores, moveCount, playerId, depth);
+            if (this.pool != null) {
+                this.pool.invoke(iteration);
+            } else {
+                iteration.compute();
+            }
+
+            if (control.stopped) break;
+
+            moveBestToFront(moves, scores, iteration.bestIndex);
+            sortByScore(moves, scores, moveCount);  // best move is searched first next iteration
+            bestMove = moves[0];
+            bestScore = scores[0];
+            depthReached = depth;
+
+            if (moveCount == 1 || Math.abs(bestScore) >= WIN_SCORE - MAX_DEPTH) break;
+            if (System.nanoTime() >= control.deadline) break;
+        }
+
+        long nodes = 0;
+        for (Searcher searcher : this.searchers) {
+            nodes += searcher.nodes;
+        }
+
+        this.lastResult = new KhetSearchResult(bestMove, bestScore, depthReached, nodes, System.nanoTime() - start);
+        return this.lastResult;
+    }
+
+    private static ForkJoinPool createPool(int threads) {
+        if (threads < 1) {
+            throw new IllegalArgumentException(String.format("Invalid thread count %d", threads));
+        }
+
+        return threads > 1 ? new ForkJoinPool(threads) : null;
+    }
+
+    // Keeps the order of the other moves, so a move that ties with the best stays behind it
+    private static void moveBestToFront(int[] moves, int[] scores, int index) {
+        int move = moves[index];
+        int score = scores[index];
+
+        System.arraycopy(moves, 0, moves, 1, index);
+        System.arraycopy(scores, 0, scores, 1, index);
+        moves[0] = move;
+        scores[0] = score;
+    }
+
+    // Stable insertion sort, highest score first
+    private static void sortByScore(int[] moves, int[] scores, int count) {
+        for (int i = 1; i < count; i++) {
+            int move = moves[i];
+            int score = scores[i];
+            int j = i - 1;
+
+            while (j >= 0 && scores[j] < score) {
+                moves[j + 1] = moves[j];
+                scores[j + 1] = scores[j];
+                j--;
+            }
+
+            moves[j + 1] = move;
+            scores[j + 1] = score;
+        }
+    }
+
+    private static final class SearchControl {
+
+        private final long deadline;
+        private volatile boolean stopAllowed;
+        private volatile boolean stopped;
+
+        SearchControl(long deadline) {
+            this.deadline = deadline;
+        }
+
+        void checkTime() {
+            if (this.stopAllowed && System.nanoTime() >= this.deadline) {
+                this.stopped = true;
+            }
+        }
+    }
+
+    /**
+     * One iteration of the root. The first move is searched with a full
+     * window, the other moves are taken from a shared counter by all
+     * searchers and only tested against the score of the first move. The
+     * moves that beat it are searched again one by one in move order, so
+     * the best move doesn't depend on which searcher finished first.
+     */
+    private static final class Iteration extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private Searcher[] searchers;
+        private int[] moves;
+        private int[] scores;
+        private int moveCount;
+        private int playerId;
+        private int depth;
+        private AtomicInteger nextMove;
+        private int bestIndex;
+
+        Iteration(Searcher[] searchers, int[] moves, int[] scores, int moveCount, int playerId, int depth) {
+            this.searchers = searchers;
+            this.moves = moves;
+            this.scores = scores;
+            this.moveCount = moveCount;
+            this.playerId = playerId;
+            this.depth = depth;
+        }
+
+        @Override
+        protected void compute() {
+            Searcher searcher = this.searchers[0];
+            int firstScore = searcher.searchRootMove(this.moves[0], this.playerId, this.depth, -INFINITY, INFINITY);
+            this.scores[0] = firstScore;
+            this.nextMove = new AtomicInteger(1);
+
+            if (this.searchers.length == 1) {  // also when there is no pool, invokeAll would use the common pool
+                testMoves(searcher, firstScore);
+            } else {
+                ArrayList<ForkJoinTask<?>> tasks = new ArrayList<>();
+                for (Searcher other : this.searchers) {
+                    tasks.add(ForkJoinTask.adapt(() -> testMoves(other, firstScore)));
+                }
+
+                ForkJoinTask.invokeAll(tasks);
+            }
+
+            int alpha = firstScore;
+            for (int i = 1; i < this.moveCount && !searcher.control.stopped; i++) {
+                if (this.scores[i] <= firstScore) continue;
+
+                int score = searcher.searchRootMove(this.moves[i], this.playerId, this.depth, alpha, INFINITY);
+                this.scores[i] = score;
+
+                if (score > alpha) {
+                    alpha = score;
+                    this.bestIndex = i;
+                }
+            }
+        }
+
+        private void testMoves(Searcher searcher, int firstScore) {
+            while (!searcher.control.stopped) {
+                int index = this.nextMove.getAndIncrement();
+                if (index >= this.moveCount) return;
+
+                this.scores[index] = searcher.searchRootMove(
+                        this.moves[index], this.playerId, this.depth, firstScore, firstScore + 1);
+            }
+        }
+    }
+
+    /**
+     * Searches on its own copy of the board, so every searcher can run on
+     * a different thread
+     */
+    private static final class Searcher {
+
+        private KhetTranspositionTable table;
+        private KhetBoard board;
+        private SearchControl control;
+        private int[][] moveBuffers;  // one buffer per ply, created when first used
+        private int maxMoves;  // size of the buffers
+        private int[] killers;  // two moves per ply that caused a cutoff
+        private long nodes;
+
+        Searcher(KhetTranspositionTable table) {
+            this.table = table;
+            this.moveBuffers = new int[MAX_DEPTH + 1][];
+            this.killers = new int[(MAX_DEPTH + 1) * 2];
+        }
+
+        void reset(KhetBoard board, SearchControl control) {
+            int maxMoves = board.getWidth() * board.getHeight() * KhetMoveGenerator.MAX_MOVES_PER_PIECE;
+            if (maxMoves != this.maxMoves) {  // buffers of another board size
+                Arrays.fill(this.moveBuffers, null);
+                this.maxMoves = maxMoves;
+            }
+
+            this.board = new KhetBoard(board);
+            this.control = control;
+            this.nodes = 0;
+            Arrays.fill(this.killers, NO_MOVE);
+        }
+
+        /**
+         * @param alpha Score to beat
+         * @param beta Score that is good enough
+         * @return Score of the move, at most alpha if it doesn't beat alpha
+         *         and at least beta if it reaches beta
+         */
+        int searchRootMove(int move, int playerId, int depth, int alpha, int beta) {
+            long undo = this.board.makeMove(move, playerId);
+            this.nodes++;
+
+            int score = isGameOver()
+                    ? getGameOverScore(playerId, 1)
+                    : -search(1 - playerId, depth - 1, 1, -beta, -alpha);
+
+            this.board.unmakeMove(undo);
+            return score;
+        }
+
+        private int search(int playerId, int depth, int ply, int alpha, int beta) {
+            if ((++this.nodes & (NODES_PER_TIME_CHECK - 1)) == 0) {
+                this.control.checkTime();
+            }
+            if (this.control.stopped) return 0;
+            if (depth == 0) return evaluate(playerId);
+
+            long key = this.board.getZobristHash(playerId);
+            long entry = this.table.probe(key);
+            int tableMove = NO_MOVE;
+
+            if (entry != KhetTranspositionTable.NOT_FOUND) {
+                tableMove = KhetTranspositionTable.getMove(entry);
+
+                if (KhetTranspositionTable.getDepth(entry) >= depth) {
+                    int score = fromTableScore(KhetTranspositionTable.getScore(entry), ply);
+                    int bound = KhetTranspositionTable.getBound(entry);
+
+                    if (bound == KhetTranspositionTable.EXACT
+                            || (bound == KhetTranspositionTable.LOWER_BOUND && score >= beta)
+                            || (bound == KhetTranspositionTable.UPPER_BOUND && score <= alpha)) {
+                        return score;
+                    }
+                }
+            }
+
+            int[] moves = getMoveBuffer(ply);
+            int moveCount = KhetMoveGenerator.generateMoves(this.board, playerId, moves);
+            if (moveCount == 0) return evaluate(playerId);
+
+            int ordered = moveToFront(moves, 0, moveCount, tableMove);
+            ordered = moveToFront(moves, ordered, moveCount, this.killers[ply * 2]);
+            moveToFront(moves, ordered, moveCount, this.killers[ply * 2 + 1]);
+
+            int opponentId = 1 - playerId;
+            int originalAlpha = alpha;
+            int bestScore = -INFINITY;
+            int bestMove = NO_MOVE;
+
+            for (int i = 0; i < moveCount; i++) {
+                long undo = this.board.makeMove(moves[i], playerId);
+                int score = isGameOver()
+                        ? getGameOverScore(playerId, ply + 1)
+                        : -search(opponentId, depth - 1, ply + 1, -beta, -alpha);
+                this.board.unmakeMove(undo);
+
+                if (this.control.stopped) return 0;
+                if (score <= bestScore) continue;
+
+                bestScore = score;
+                bestMove = moves[i];
+
+                if (score > alpha) {
+                    alpha = score;
+                    if (alpha >= beta) {
+                        storeKiller(ply, bestMove);
+                        break;
+                    }
+                }
+            }
+
+            int bound = bestScore <= originalAlpha ? KhetTranspositionTable.UPPER_BOUND
+                    : bestScore >= beta ? KhetTranspositionTable.LOWER_BOUND
+                    : KhetTranspositionTable.EXACT;
+            this.table.store(key, bestMove, toTableScore(bestScore, ply), depth, bound);
+
+            return bestScore;
+        }
+
+        /**
+         * Material difference, plus a bonus for what the laser of the player
+         * to move hits when nothing changes before the next shot
+         */
+        private int evaluate(int playerId) {
+            int score = getMaterial(playerId) - getMaterial(1 - playerId);
+            int target = this.board.getLaserTarget(playerId);
+
+            if (target >= 0) {
+                KhetPiece piece = getPiece(target);
+                int value = piece.getType() == KhetPieceType.PHARAOH
+                        ? PHARAOH_THREAT
+                        : PIECE_VALUES[piece.getType().ordinal()] / 2;
+
+                score += piece.getPlayerId() == playerId ? -value : value;
+            }
+
+            return score;
+        }
+
+        private int getMaterial(int playerId) {
+            int[] squares = this.board.getPieceSquares(playerId);
+            int material = 0;
+
+            for (int i = 0; i < this.board.getPieceCount(playerId); i++) {
+                material += PIECE_VALUES[getPiece(squares[i]).getType().ordinal()];
+            }
+
+            return material;
+        }
+
+        private KhetPiece getPiece(int square) {
+            return this.board.getPieceAt(square % this.board.getWidth(), square / this.board.getWidth());
+        }
+
+        private boolean isGameOver() {
+            return this.board.getNoPharaohPlayerCount() > 0;
+        }
+
+        /**
+         * @param playerId Player that just made the move that ended the game
+         * @param ply Plies from the root including that move, faster wins score higher
+         */
+        private int getGameOverScore(int playerId, int ply) {
+            boolean hasPharaoh = this.board.hasPharaoh(playerId);
+            if (hasPharaoh == this.board.hasPharaoh(1 - playerId)) return 0;  // both pharaohs destroyed
+
+            return hasPharaoh ? WIN_SCORE - ply : -(WIN_SCORE - ply);
+        }
+
+        private void storeKiller(int ply, int move) {
+            if (this.killers[ply * 2] == move) return;
+
+            this.killers[ply * 2 + 1] = this.killers[ply * 2];
+            this.killers[ply * 2] = move;
+        }
+
+        private int[] getMoveBuffer(int ply) {
+            if (this.moveBuffers[ply] == null) {
+                this.moveBuffers[ply] = new int[this.maxMoves];
+            }
+
+            return this.moveBuffers[ply];
+        }
+    }
+
+    /**
+     * Swaps a move to the given index if it is in the rest of the list
+     * @return Index for the next move to order
+     */
+    private static int moveToFront(int[] moves, int index, int moveCount, int move) {
+        if (move == NO_MOVE) return index;
+
+        for (int i = index; i < moveCount; i++) {
+            if (moves[i] == move) {
+                moves[i] = moves[index];
+                moves[index] = move;
+                return index + 1;
+            }
+        }
+
+        return index;
+    }
+
+    // Win scores are stored relative to the position, so they stay right when it is reached at another ply
+    private static int toTableScore(int score, int ply) {
+        if (score >= WIN_SCORE - MAX_DEPTH) return score + ply;
+        if (score <= -(WIN_SCORE - MAX_DEPTH)) return score - ply;
+        return score;
+    }
+
+    private static int fromTableScore(int score, int ply) {
+        if (score >= WIN_SCORE - MAX_DEPTH) return score - ply;
+        if (score <= -(WIN_SCORE - MAX_DEPTH)) return score + ply;
+        return score;
+    }
+
+    public static void main(String[] args) {
+        int timePerMove = DEFAULT_TIME_PER_MOVE;
+        int threads = Runtime.getRuntime().availableProcessors();
+        int width = 10;
+        int height = 8;
+        int playerId = 0;
+        String boardString = KhetEngine.getStartingBoardString();
+
+        for (String arg : args) {
+            if (arg.startsWith("--threads=")) {
+                threads = Integer.parseInt(arg.substring("--threads=".length()));
+            } else if (arg.startsWith("--player=")) {
+                playerId = Integer.parseInt(arg.substring("--player=".length()));
+            } else if (arg.startsWith("--width=")) {
+                width = Integer.parseInt(arg.substring("--width=".length()));
+            } else if (arg.startsWith("--height=")) {
+                height = Integer.parseInt(arg.substring("--height=".length()));
+            } else if (arg.startsWith("--board=")) {
+                boardString = arg.substring("--board=".length());
+            } else if (!arg.startsWith("--")) {
+                timePerMove = Integer.parseInt(arg);
+            } else {
+                throw new IllegalArgumentException(String.format("Unknown argument '%s'", arg));
+            }
+        }
+
+        KhetBoard board = new KhetBoard(width, height, 2, boardString);
+        KhetSearchBot bot = new KhetSearchBot(timePerMove, threads);
+        KhetSearchResult result = bot.search(board, playerId);
+
+        System.out.println(String.format("%s: %s", KhetMoveGenerator.toString(result.getMove(), width), result));
+    }
+}
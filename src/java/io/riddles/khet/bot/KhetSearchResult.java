@@ -0,0 +1,87 @@
+/*
+ *  Copyright 2017 riddles.io (developers@riddles.io)
+ *
+ *      Licensed under the Apache License, Version 2.0 (the "License");
+ *      you may not use this file except in compliance with the License.
+ *      You may obtain a copy of the License at
+ *
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *      Unless required by applicable law or agreed to in writing, software
+ *      distributed under the License is distributed on an "AS IS" BASIS,
+ *      WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *      See the License for the specific language governing permissions and
+ *      limitations under the License.
+ *
+ *      For the full copyright and license information, please view the LICENSE
+ *      file that was distributed with this source code.
+ */
+
+package io.riddles.khet.bot;
+
+/**
+ * io.riddles.khet.bot.KhetSearchResult - Created on 18-10-26
+ *
+ * Outcome of a single KhetSearchBot search: the chosen move and how far
+ * and how fast the search got.
+ *
+ * @author Jim van Eeden - jim@riddles.io
+ */
+public class KhetSearchResult {
+
+    private int move;
+    private int score;
+    private int depth;
+    private long nodes;
+    private long nanos;
+
+    public KhetSearchResult(int move, int score, int depth, long nodes, long nanos) {
+        this.move = move;
+        this.score = score;
+        this.depth = depth;
+        this.nodes = nodes;
+        this.nanos = nanos;
+    }
+
+    /**
+     * @return Best move, encoded like KhetMoveGenerator moves
+     */
+    public int getMove() {
+        return this.move;
+    }
+
+    /**
+     * @return Score of the best move from the view of the searching player
+     */
+    public int getScore() {
+        return this.score;
+    }
+
+    /**
+     * @return Deepest completed iteration in plies
+     */
+    public int getDepth() {
+        return this.depth;
+    }
+
+    /**
+     * @return Positions visited by all search threads together
+     */
+    public long getNodes() {
+        return this.nodes;
+    }
+
+    public long getNanos() {
+        return this.nanos;
+    }
+
+    public double getNodesPerSecond() {
+        return this.nanos > 0 ? this.nodes * 1e9 / this.nanos : 0;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("depth %d score %d nodes %d in %.3f s (%.0f nodes/s)",
+                this.depth, this.score, this.nodes, this.nanos / 1e9, getNodesPerSecond());
+    }
+}
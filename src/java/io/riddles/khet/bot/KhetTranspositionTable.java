@@ -0,0 +1,128 @@
+/*
+ *  Copyright 2017 riddles.io (developers@riddles.io)
+ *
+ *      Licensed under the Apache License, Version 2.0 (the "License");
+ *      you may not use this file except in compliance with the License.
+ *      You may obtain a copy of the License at
+ *
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *      Unless required by applicable law or agreed to in writing, software
+ *      distributed under the License is distributed on an "AS IS" BASIS,
+ *      WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *      See the License for the specific language governing permissions and
+ *      limitations under the License.
+ *
+ *      For the full copyright and license information, please view the LICENSE
+ *      file that was distributed with this source code.
+ */
+
+package io.riddles.khet.bot;
+
+import java.util.Arrays;
+
+/**
+ * io.riddles.khet.bot.KhetTranspositionTable - Created on 18-10-26
+ *
+ * Hash table of search results, indexed by Zobrist hash and shared by all
+ * search threads without locking. Every entry is two longs, the key xor
+ * the data and the data itself. A torn write from two threads storing at
+ * the same time leaves an entry whose key doesn't match, so it is ignored.
+ *
+ * Data layout: bits 0-31 the encoded move, bits 32-52 the score,
+ * bits 53-60 the depth and bits 61-62 the bound.
+ *
+ * @author Jim van Eeden - jim@riddles.io
+ */
+public final class KhetTranspositionTable {
+
+    public static final long NOT_FOUND = 0;
+
+    // bounds, never 0 so stored data is never NOT_FOUND
+    public static final int EXACT = 1;
+    public static final int LOWER_BOUND = 2;  // score is at least the stored score
+    public static final int UPPER_BOUND = 3;  // score is at most the stored score
+
+    private static final int MOVE_BITS = 32;
+    private static final int SCORE_BITS = 21;
+    private static final int DEPTH_BITS = 8;
+
+    private static final int SCORE_SHIFT = MOVE_BITS;
+    private static final int DEPTH_SHIFT = SCORE_SHIFT + SCORE_BITS;
+    private static final int BOUND_SHIFT = DEPTH_SHIFT + DEPTH_BITS;
+    private static final int SCORE_OFFSET = 1 << (SCORE_BITS - 1);
+
+    private static final long MOVE_MASK = (1L << MOVE_BITS) - 1;
+    private static final long SCORE_MASK = (1L << SCORE_BITS) - 1;
+    private static final long DEPTH_MASK = (1L << DEPTH_BITS) - 1;
+
+    private final long[] entries;
+    private final int indexMask;
+
+    /**
+     * @param sizeBits Table holds 2^sizeBits entries of 16 bytes each
+     */
+    public KhetTranspositionTable(int sizeBits) {
+        if (sizeBits < 1 || sizeBits > 28) {
+            throw new IllegalArgumentException(String.format("Invalid table size 2^%d", sizeBits));
+        }
+
+        this.entries = new long[2 << sizeBits];
+        this.indexMask = (1 << sizeBits) - 1;
+    }
+
+    /**
+     * @param key Zobrist hash of the position
+     * @return Stored data, or NOT_FOUND if the position isn't in the table
+     */
+    public long probe(long key) {
+        int index = ((int) key & this.indexMask) << 1;
+        long data = this.entries[index + 1];
+
+        return (this.entries[index] ^ data) == key ? data : NOT_FOUND;
+    }
+
+    /**
+     * Stores a result, replacing the entry of another position or a
+     * shallower result of the same position
+     * @param key Zobrist hash of the position
+     * @param move Best encoded move, or 0
+     * @param score Score from the view of the player to move, mate scores relative to this position
+     * @param depth Remaining depth of the search
+     * @param bound EXACT, LOWER_BOUND or UPPER_BOUND
+     */
+    public void store(long key, int move, int score, int depth, int bound) {
+        int index = ((int) key & this.indexMask) << 1;
+        long oldData = this.entries[index + 1];
+
+        if ((this.entries[index] ^ oldData) == key && getDepth(oldData) > depth) return;
+
+        long data = (move & MOVE_MASK)
+                | ((long) (score + SCORE_OFFSET) & SCORE_MASK) << SCORE_SHIFT
+                | ((long) depth & DEPTH_MASK) << DEPTH_SHIFT
+                | (long) bound << BOUND_SHIFT;
+
+        this.entries[index] = key ^ data;
+        this.entries[index + 1] = data;
+    }
+
+    public void clear() {
+        Arrays.fill(this.entries, 0);
+    }
+
+    public static int getMove(long data) {
+        return (int) (data & MOVE_MASK);
+    }
+
+    public static int getScore(long data) {
+        return (int) ((data >>> SCORE_SHIFT) & SCORE_MASK) - SCORE_OFFSET;
+    }
+
+    public static int getDepth(long data) {
+        return (int) ((data >>> DEPTH_SHIFT) & DEPTH_MASK);
+    }
+
+    public static int getBound(long data) {
+        return (int) (data >>> BOUND_SHIFT);
+    }
+}
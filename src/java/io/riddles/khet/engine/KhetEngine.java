@@ -19,7 +19,9 @@
 
 package io.riddles.khet.engine;
 
+import java.io.StringWriter;
 import java.util.ArrayList;
+import java.util.List;
 
 import io.riddles.javainterface.configuration.Configuration;
 import io.riddles.javainterface.engine.AbstractEngine;
@@ -28,12 +30,15 @@ import io.riddles.javainterface.engine.SimpleGameLoop;
 import io.riddles.javainterface.exception.TerminalException;
 import io.riddles.javainterface.game.player.PlayerProvider;
 import io.riddles.javainterface.io.IOInterface;
+import io.riddles.khet.game.KhetReplaySerializer;
 import io.riddles.khet.game.KhetSerializer;
+import io.riddles.khet.game.KhetStreamingSerializer;
 import io.riddles.khet.game.board.KhetBoard;
 import io.riddles.khet.game.player.KhetPlayer;
 import io.riddles.khet.game.processor.KhetProcessor;
 import io.riddles.khet.game.state.KhetPlayerState;
 import io.riddles.khet.game.state.KhetState;
+import io.riddles.khet.game.state.KhetStateRetention;
 
 /**
  * io.riddles.khet.engine.KhetEngine - Created on 8-3-17
@@ -44,6 +49,10 @@ import io.riddles.khet.game.state.KhetState;
  */
 public class KhetEngine extends AbstractEngine<KhetProcessor, KhetPlayer, KhetState> {
 
+    private StringWriter playedGameWriter;
+    private KhetStreamingSerializer streamingSerializer;
+    private KhetReplaySerializer replaySerializer;
+
     public KhetEngine(PlayerProvider<KhetPlayer> playerProvider, IOInterface ioHandler) throws TerminalException {
         super(playerProvider, ioHandler);
     }
@@ -55,6 +64,10 @@ public class KhetEngine extends AbstractEngine<KhetProcessor, KhetPlayer, KhetSt
         configuration.put("boardWidth", 10);
         configuration.put("boardHeight", 8);
         configuration.put("maxRounds", 100);
+        configuration.put("streamPlayedGame", 0);  // 1 serializes states while the game is played, the history isn't kept
+        configuration.put("compactPlayedGame", 0);  // 1 outputs the compact replay format
+        configuration.put("historySnapshotInterval", 1);  // states between states that keep their board, 0 for none
+        configuration.put("historyRecentStates", 1);  // newest states that keep their board
 
         return configuration;
     }
@@ -86,7 +99,40 @@ public class KhetEngine extends AbstractEngine<KhetProcessor, KhetPlayer, KhetSt
     protected KhetState getInitialState() {
         int width = configuration.getInt("boardWidth");
         int height = configuration.getInt("boardHeight");
-        int playerCount = this.playerProvider.getPlayers().size();
+
+        KhetState state = createInitialState(width, height, this.playerProvider.getPlayers());
+
+        if (configuration.getInt("compactPlayedGame") == 1) {
+            this.replaySerializer = new KhetReplaySerializer();
+            this.replaySerializer.start(state);
+            this.processor.setStateListener(this.replaySerializer);
+            state.setKeepHistory(false);
+        } else if (configuration.getInt("streamPlayedGame") == 1) {
+            // getPlayedGame has to return the whole document as a String for the wrapper,
+            // so it is collected in memory. Only the state history and JSON tree are saved.
+            this.playedGameWriter = new StringWriter();
+            this.streamingSerializer = new KhetStreamingSerializer(this.playedGameWriter);
+            this.streamingSerializer.writeState(state);
+            this.processor.setStateListener(this.streamingSerializer);
+            state.setKeepHistory(false);
+        } else {
+            state.setRetention(new KhetStateRetention(
+                    configuration.getInt("historySnapshotInterval"),
+                    configuration.getInt("historyRecentStates")));
+        }
+
+        return state;
+    }
+
+    /**
+     * Creates the first state of a match on the starting board
+     * @param width Width of the board
+     * @param height Height of the board
+     * @param players Players of the match
+     * @return Initial state
+     */
+    public static KhetState createInitialState(int width, int height, List<KhetPlayer> players) {
+        int playerCount = players.size();
 
         if (playerCount != 2) {
             throw new RuntimeException("This game requires exactly 2 players");
@@ -97,7 +143,7 @@ public class KhetEngine extends AbstractEngine<KhetProcessor, KhetPlayer, KhetSt
 
         // Create intitial player states
         ArrayList<KhetPlayerState> playerStates = new ArrayList<>();
-        for (KhetPlayer player : this.playerProvider.getPlayers()) {
+        for (KhetPlayer player : players) {
             KhetPlayerState playerState = new KhetPlayerState(player.getId());
             playerStates.add(playerState);
         }
@@ -113,11 +159,20 @@ public class KhetEngine extends AbstractEngine<KhetProcessor, KhetPlayer, KhetSt
 
     @Override
     protected String getPlayedGame(KhetState initialState) {
+        if (this.replaySerializer != null) {
+            return this.replaySerializer.finish(this.processor).toString();
+        }
+
+        if (this.streamingSerializer != null) {
+            this.streamingSerializer.finish(this.processor);
+            return this.playedGameWriter.toString();
+        }
+
         KhetSerializer serializer = new KhetSerializer();
         return serializer.traverseToString(this.processor, initialState);
     }
 
-    private String getStartingBoardString() {
+    public static String getStartingBoardString() {
         return "0SP0S,1    ,.    ,.    ,.AN0S,.PH0S,.AN0S,.PY0E,0    ,1    ," +
                "0    ,.    ,.PY0S,.    ,.    ,.    ,.    ,.    ,.    ,1    ," +
                "0    ,.    ,.    ,.PY1E,.    ,.    ,.    ,.    ,.    ,1    ," +
@@ -0,0 +1,170 @@
+/*
+ *  Copyright 2017 riddles.io (developers@riddles.io)
+ *
+ *      Licensed under the Apache License, Version 2.0 (the "License");
+ *      you may not use this file except in compliance with the License.
+ *      You may obtain a copy of the License at
+ *
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *      Unless required by applicable law or agreed to in writing, software
+ *      distributed under the License is distributed on an "AS IS" BASIS,
+ *      WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *      See the License for the specific language governing permissions and
+ *      limitations under the License.
+ *
+ *      For the full copyright and license information, please view the LICENSE
+ *      file that was distributed with this source code.
+ */
+
+package io.riddles.khet.game;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import java.util.ArrayList;
+
+import io.riddles.khet.game.board.KhetBoard;
+import io.riddles.khet.game.board.piece.KhetPiece;
+import io.riddles.khet.game.move.KhetMove;
+import io.riddles.khet.game.move.KhetMoveDeserializer;
+import io.riddles.khet.game.processor.KhetProcessor;
+import io.riddles.khet.game.state.KhetPlayerState;
+import io.riddles.khet.game.state.KhetState;
+
+/**
+ * io.riddles.khet.game.KhetReplayDecoder - Created on 18-10-26
+ *
+ * Rebuilds states from a replay written by KhetReplaySerializer. State index 0
+ * is the initial state, every turn adds the state after the move and the
+ * state after the laser, so the indices match the "states" array of the
+ * full played game. States are rebuilt by performing the moves again,
+ * the stored destroyed pieces are used to check the result.
+ *
+ * @author Jim van Eeden - jim@riddles.io
+ */
+public class KhetReplayDecoder {
+
+    private int width;
+    private int height;
+    private int playerCount;
+    private String initialBoard;
+    private JSONArray turns;
+    private KhetMoveDeserializer moveDeserializer;
+
+    // last rebuilt state, so walking forward through the replay doesn't start over every time
+    private int cachedIndex = -1;
+    private KhetState cachedState;
+
+    public KhetReplayDecoder(String replay) {
+        this(new JSONObject(replay));
+    }
+
+    public KhetReplayDecoder(JSONObject replay) {
+        int version = replay.getInt("version");
+        if (version != KhetReplaySerializer.VERSION) {
+            throw new RuntimeException(String.format("Unsupported replay version %d", version));
+        }
+
+        this.width = replay.getInt("width");
+        this.height = replay.getInt("height");
+        this.playerCount = replay.getInt("playerCount");
+        this.initialBoard = replay.getString("board");
+        this.turns = replay.getJSONArray("turns");
+        this.moveDeserializer = new KhetMoveDeserializer();
+    }
+
+    public int getStateCount() {
+        return 1 + this.turns.length() * 2;
+    }
+
+    /**
+     * Rebuilds a single state. The returned state is not linked to other states.
+     * @param index Index of the state, 0 is the initial state
+     * @return The state
+     */
+    public KhetState getState(int index) {
+        if (index < 0 || index >= getStateCount()) {
+            throw new IndexOutOfBoundsException(
+                    String.format("State %d doesn't exist, replay has %d states", index, getStateCount()));
+        }
+
+        if (index < this.cachedIndex || this.cachedState == null) {
+            this.cachedState = createInitialState();
+            this.cachedState.setKeepHistory(false);
+            this.cachedIndex = 0;
+        }
+
+        while (this.cachedIndex < index) {
+            this.cachedState = createNextState(this.cachedState, this.cachedIndex);
+            this.cachedIndex++;
+        }
+
+        return this.cachedState;
+    }
+
+    /**
+     * Rebuilds all states, linked like they were while the game was played,
+     * so they can be given to KhetSerializer
+     * @return The initial state
+     */
+    public KhetState getInitialState() {
+        KhetState initialState = createInitialState();
+
+        KhetState state = initialState;
+        for (int index = 0; index < getStateCount() - 1; index++) {
+            state = createNextState(state, index);
+        }
+
+        return initialState;
+    }
+
+    private KhetState createInitialState() {
+        KhetBoard board = new KhetBoard(this.width, this.height, this.playerCount, this.initialBoard);
+
+        ArrayList<KhetPlayerState> playerStates = new ArrayList<>();
+        for (int playerId = 0; playerId < this.playerCount; playerId++) {
+            playerStates.add(new KhetPlayerState(playerId));
+        }
+
+        KhetState state = new KhetState(playerStates, board);
+        state.updatePlayerStates();
+
+        return state;
+    }
+
+    /**
+     * @param state State with given index
+     * @param index Index of the given state
+     * @return State with the next index
+     */
+    private KhetState createNextState(KhetState state, int index) {
+        JSONObject turn = this.turns.getJSONObject(index / 2);
+        int roundNumber = turn.getInt("round");
+        int playerId = turn.getInt("player");
+
+        if (index % 2 == 0) {
+            KhetMove move = this.moveDeserializer.traverseJson(turn.getJSONObject("move"));
+            return KhetProcessor.createMovePerformedState(state, move, playerId, roundNumber);
+        }
+
+        KhetState laserOnBoardState = KhetProcessor.createFireLaserState(state, playerId, roundNumber);
+        checkDestroyedPiece(laserOnBoardState.getBoard(), turn);
+
+        return laserOnBoardState;
+    }
+
+    private void checkDestroyedPiece(KhetBoard board, JSONObject turn) {
+        KhetPiece destroyedPiece = board.getDestroyedPiece();
+        String expected = turn.has("destroyed")
+                ? turn.getJSONObject("destroyed").getString("piece")
+                : null;
+        String actual = destroyedPiece != null ? destroyedPiece.toString() : null;
+
+        if (expected == null ? actual != null : !expected.equals(actual)) {
+            throw new RuntimeException(String.format(
+                    "Replay doesn't match in round %d: expected %s to be destroyed, got %s",
+                    turn.getInt("round"), expected, actual));
+        }
+    }
+}
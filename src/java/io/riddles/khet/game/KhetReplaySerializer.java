@@ -0,0 +1,178 @@
+/*
+ *  Copyright 2017 riddles.io (developers@riddles.io)
+ *
+ *      Licensed under the Apache License, Version 2.0 (the "License");
+ *      you may not use this file except in compliance with the License.
+ *      You may obtain a copy of the License at
+ *
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *      Unless required by applicable law or agreed to in writing, software
+ *      distributed under the License is distributed on an "AS IS" BASIS,
+ *      WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *      See the License for the specific language governing permissions and
+ *      limitations under the License.
+ *
+ *      For the full copyright and license information, please view the LICENSE
+ *      file that was distributed with this source code.
+ */
+
+package io.riddles.khet.game;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import io.riddles.javainterface.game.AbstractGameSerializer;
+import io.riddles.khet.game.board.KhetBoard;
+import io.riddles.khet.game.board.piece.KhetPiece;
+import io.riddles.khet.game.move.KhetMoveSerializer;
+import io.riddles.khet.game.processor.KhetProcessor;
+import io.riddles.khet.game.processor.KhetStateListener;
+import io.riddles.khet.game.state.KhetPlayerState;
+import io.riddles.khet.game.state.KhetState;
+
+/**
+ * io.riddles.khet.game.KhetReplaySerializer - Created on 18-10-26
+ *
+ * Writes the played game in the compact replay format. The initial board
+ * is stored once, after that every turn only stores the move, the laser
+ * paths as square indices (y * width + x) and the piece that was destroyed.
+ * KhetReplayDecoder rebuilds the states from this.
+ * Can traverse a linked state history, or be used as state listener of
+ * the processor so the history doesn't have to be kept.
+ *
+ * @author Jim van Eeden - jim@riddles.io
+ */
+public class KhetReplaySerializer extends AbstractGameSerializer<KhetProcessor, KhetState>
+        implements KhetStateListener {
+
+    public static final int VERSION = 1;
+
+    private KhetMoveSerializer moveSerializer;
+    private KhetState initialState;
+    private KhetState lastState;  // winner and score are taken from here, the history may not be kept
+    private KhetState movePerformedState;
+    private JSONArray turns;
+
+    public KhetReplaySerializer() {
+        this.moveSerializer = new KhetMoveSerializer();
+    }
+
+    @Override
+    public String traverseToString(KhetProcessor processor, KhetState initialState) {
+        return traverseToJson(processor, initialState).toString();
+    }
+
+    public JSONObject traverseToJson(KhetProcessor processor, KhetState initialState) {
+        start(initialState);
+
+        KhetState state = initialState;
+        while (state.hasNextState()) {
+            state = (KhetState) state.getNextState();
+            onStateCreated(state);
+        }
+
+        return finish(processor);
+    }
+
+    /**
+     * Starts a new replay, states created after this one are passed to onStateCreated
+     * @param initialState First state of the game
+     */
+    public void start(KhetState initialState) {
+        this.initialState = initialState;
+        this.lastState = initialState;
+        this.movePerformedState = null;
+        this.turns = new JSONArray();
+    }
+
+    /**
+     * States come in pairs, the state after the move and the state after the laser.
+     * A turn is written once both are known.
+     * @param state Next state of the game
+     */
+    @Override
+    public void onStateCreated(KhetState state) {
+        this.lastState = state;
+
+        if (this.movePerformedState == null) {
+            this.movePerformedState = state;
+            return;
+        }
+
+        this.turns.put(visitTurn(this.movePerformedState, state));
+        this.movePerformedState = null;
+    }
+
+    /**
+     * @param processor Processor of the match
+     * @return The complete replay, including the default game fields
+     */
+    public JSONObject finish(KhetProcessor processor) {
+        if (this.initialState == null) {
+            throw new IllegalStateException("Replay has not been started");
+        }
+
+        KhetBoard board = this.initialState.getBoard();
+        JSONObject replay = new JSONObject();
+
+        // The last state has no next states, so it works as start of the traversal
+        replay = addDefaultJSON(this.lastState, replay, processor);
+
+        replay.put("version", VERSION);
+        replay.put("width", board.getWidth());
+        replay.put("height", board.getHeight());
+        replay.put("playerCount", board.getPlayerCount());
+        replay.put("board", board.toString());
+        replay.put("turns", this.turns);
+
+        return replay;
+    }
+
+    private JSONObject visitTurn(KhetState movePerformedState, KhetState laserState) {
+        JSONObject turnObj = new JSONObject();
+        KhetPlayerState movingPlayerState = getMovingPlayerState(movePerformedState);
+
+        turnObj.put("round", movePerformedState.getRoundNumber());
+        turnObj.put("player", movingPlayerState.getPlayerId());
+        turnObj.put("move", this.moveSerializer.traverseToJson(movingPlayerState.getMove()));
+        turnObj.put("lasers", visitLaserPaths(laserState.getBoard()));
+
+        KhetPiece destroyedPiece = laserState.getBoard().getDestroyedPiece();
+        if (destroyedPiece != null) {
+            JSONObject destroyedObj = new JSONObject();
+            destroyedObj.put("square", laserState.getBoard().getDestroyedSquare());
+            destroyedObj.put("piece", destroyedPiece.toString());
+            turnObj.put("destroyed", destroyedObj);
+        }
+
+        return turnObj;
+    }
+
+    private JSONArray visitLaserPaths(KhetBoard board) {
+        JSONArray laserPaths = new JSONArray();
+
+        for (int path = 0; path < board.getLaserPathCount(); path++) {
+            JSONArray laserPath = new JSONArray();
+
+            for (int i = 0; i < board.getLaserPathLength(path); i++) {
+                laserPath.put(board.getLaserPathSquare(path, i));
+            }
+
+            laserPaths.put(laserPath);
+        }
+
+        return laserPaths;
+    }
+
+    private KhetPlayerState getMovingPlayerState(KhetState movePerformedState) {
+        for (KhetPlayerState playerState : movePerformedState.getPlayerStates()) {
+            if (playerState.getMove() != null) {
+                return playerState;
+            }
+        }
+
+        throw new RuntimeException(
+                String.format("No move found in state of round %d", movePerformedState.getRoundNumber()));
+    }
+}
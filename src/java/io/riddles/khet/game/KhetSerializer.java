@@ -56,4 +56,14 @@ public class KhetSerializer extends AbstractGameSerializer<KhetProcessor, KhetSt
 
         return game.toString();
     }
+
+    /**
+     * Creates the fields every played game has, like winner and score
+     * @param processor Processor of the match
+     * @param state State to traverse from to the end of the game
+     * @return JSON object with the default fields
+     */
+    public JSONObject getDefaultJSON(KhetProcessor processor, KhetState state) {
+        return addDefaultJSON(state, new JSONObject(), processor);
+    }
 }
@@ -0,0 +1,110 @@
+/*
+ *  Copyright 2017 riddles.io (developers@riddles.io)
+ *
+ *      Licensed under the Apache License, Version 2.0 (the "License");
+ *      you may not use this file except in compliance with the License.
+ *      You may obtain a copy of the License at
+ *
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *      Unless required by applicable law or agreed to in writing, software
+ *      distributed under the License is distributed on an "AS IS" BASIS,
+ *      WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *      See the License for the specific language governing permissions and
+ *      limitations under the License.
+ *
+ *      For the full copyright and license information, please view the LICENSE
+ *      file that was distributed with this source code.
+ */
+
+package io.riddles.khet.game;
+
+import org.json.JSONObject;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+
+import io.riddles.khet.game.processor.KhetProcessor;
+import io.riddles.khet.game.processor.KhetStateListener;
+import io.riddles.khet.game.state.KhetState;
+import io.riddles.khet.game.state.KhetStateSerializer;
+
+/**
+ * io.riddles.khet.game.KhetStreamingSerializer - Created on 18-10-26
+ *
+ * Writes the played game to a Writer while the match is being played.
+ * Every state is written as soon as it is created, so neither the state
+ * history nor a JSON tree of the whole game has to be kept in memory.
+ * The output contains the same fields as KhetSerializer, but "states"
+ * comes first because the winner and score are only known at the end.
+ *
+ * @author Jim van Eeden - jim@riddles.io
+ */
+public class KhetStreamingSerializer implements KhetStateListener {
+
+    private Writer writer;
+    private KhetStateSerializer stateSerializer;
+    private KhetState lastState;
+
+    public KhetStreamingSerializer(Writer writer) {
+        this.writer = writer;
+        this.stateSerializer = new KhetStateSerializer();
+    }
+
+    @Override
+    public void onStateCreated(KhetState state) {
+        writeState(state);
+    }
+
+    /**
+     * Writes the next state of the game, the first call should pass the initial state
+     * @param state State to write
+     */
+    public void writeState(KhetState state) {
+        write(this.lastState == null ? "{\"states\":[" : ",");
+        write(this.stateSerializer.traverseToString(state));
+        this.lastState = state;
+    }
+
+    /**
+     * Writes the default game fields and closes the document
+     * @param processor Processor of the match
+     */
+    public void finish(KhetProcessor processor) {
+        if (this.lastState == null) {
+            throw new IllegalStateException("No states have been written");
+        }
+
+        write("]");
+
+        // The last state has no next states, so it works as start of the traversal
+        JSONObject defaults = new KhetSerializer().getDefaultJSON(processor, this.lastState);
+        for (String key : defaults.keySet()) {
+            write(",");
+            write(JSONObject.quote(key));
+            write(":");
+            write(JSONObject.valueToString(defaults.get(key)));
+        }
+
+        write("}");
+
+        try {
+            this.writer.flush();
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    public KhetState getLastState() {
+        return this.lastState;
+    }
+
+    private void write(String string) {
+        try {
+            this.writer.write(string);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+}
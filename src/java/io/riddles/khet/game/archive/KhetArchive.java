@@ -0,0 +1,109 @@
+/*
+ *  Copyright 2017 riddles.io (developers@riddles.io)
+ *
+ *      Licensed under the Apache License, Version 2.0 (the "License");
+ *      you may not use this file except in compliance with the License.
+ *      You may obtain a copy of the License at
+ *
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *      Unless required by applicable law or agreed to in writing, software
+ *      distributed under the License is distributed on an "AS IS" BASIS,
+ *      WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *      See the License for the specific language governing permissions and
+ *      limitations under the License.
+ *
+ *      For the full copyright and license information, please view the LICENSE
+ *      file that was distributed with this source code.
+ */
+
+package io.riddles.khet.game.archive;
+
+import io.riddles.khet.game.board.piece.KhetPiece;
+import io.riddles.khet.game.board.piece.KhetPieceOrientation;
+import io.riddles.khet.game.board.piece.KhetPieceType;
+
+/**
+ * io.riddles.khet.game.archive.KhetArchive - Created on 18-10-26
+ *
+ * Layout of the binary replay archive. All numbers are big endian.
+ *
+ * File:    magic, version, game blocks..., game index, game count,
+ *          index offset, magic
+ * Index:   per game the offset (long) and length (int) of its block
+ * Game:    header, layout (one byte per square), snapshot offsets (int),
+ *          snapshots (one piece byte per square), turns, laser squares, strings
+ * Turn:    fixed width record, see the TURN_ constants
+ * String:  UTF-8 byte length (short), then the bytes. Longer strings are
+ *          cut at the last whole character within MAX_STRING_LENGTH bytes
+ *
+ * Snapshot k holds the pieces after turn k * snapshotInterval, snapshot 0 is
+ * the initial board. A turn is a move of one player followed by its laser.
+ *
+ * @author Jim van Eeden - jim@riddles.io
+ */
+final class KhetArchive {
+
+    static final int MAGIC = 0x4b485441;  // "KHTA"
+    static final short VERSION = 1;
+    static final int FILE_HEADER_SIZE = 6;
+    static final int FILE_FOOTER_SIZE = 16;
+    static final int INDEX_ENTRY_SIZE = 12;
+
+    // game header
+    static final int GAME_WIDTH = 0;  // byte
+    static final int GAME_HEIGHT = 1;  // byte
+    static final int GAME_PLAYER_COUNT = 2;  // byte
+    static final int GAME_SNAPSHOT_INTERVAL = 3;  // short
+    static final int GAME_TURN_COUNT = 5;  // int
+    static final int GAME_SNAPSHOT_COUNT = 9;  // int
+    static final int GAME_TURNS_OFFSET = 13;  // int
+    static final int GAME_LASERS_OFFSET = 17;  // int
+    static final int GAME_STRINGS_OFFSET = 21;  // int
+    static final int GAME_HEADER_SIZE = 25;
+
+    // turn record
+    static final int TURN_ROUND = 0;  // int
+    static final int TURN_PLAYER = 4;  // byte
+    static final int TURN_MOVE_TYPE = 5;  // byte
+    static final int TURN_MOVE_ARGS = 6;  // 4 ints
+    static final int TURN_DESTROYED_SQUARE = 22;  // short, -1 if nothing was destroyed
+    static final int TURN_DESTROYED_PIECE = 24;  // byte
+    static final int TURN_LASER_OFFSET = 25;  // int
+    static final int TURN_LASER_PATH_COUNT = 29;  // byte
+    static final int TURN_SIZE = 30;
+
+    // move types, the arguments are from x, from y, to x, to y for moves,
+    // from x, from y, turn type ordinal for turns and the offset of the
+    // exception message for moves that failed to parse
+    static final byte MOVE_UNPARSABLE = 0;
+    static final byte MOVE_MOVE = 1;
+    static final byte MOVE_TURN = 2;
+
+    static final byte EMPTY = 0;
+
+    static final int MAX_STRING_LENGTH = 0xffff;  // bytes
+
+    private KhetArchive() {}
+
+    /**
+     * @param piece Piece or null
+     * @return Piece byte, type + 1 in the high bits, then player id and orientation
+     */
+    static byte encodePiece(KhetPiece piece) {
+        if (piece == null) return EMPTY;
+
+        return (byte) ((piece.getType().ordinal() + 1) << 4
+                | piece.getPlayerId() << 2
+                | piece.getOrientation().ordinal());
+    }
+
+    static KhetPiece decodePiece(byte value) {
+        if (value == EMPTY) return null;
+
+        return KhetPiece.of(
+                KhetPieceType.values()[(value >> 4) - 1],
+                (value >> 2) & 3,
+                KhetPieceOrientation.values()[value & 3]);
+    }
+}
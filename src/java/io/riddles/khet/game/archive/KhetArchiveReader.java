@@ -0,0 +1,355 @@
+/*
+ *  Copyright 2017 riddles.io (developers@riddles.io)
+ *
+ *      Licensed under the Apache License, Version 2.0 (the "License");
+ *      you may not use this file except in compliance with the License.
+ *      You may obtain a copy of the License at
+ *
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *      Unless required by applicable law or agreed to in writing, software
+ *      distributed under the License is distributed on an "AS IS" BASIS,
+ *      WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *      See the License for the specific language governing permissions and
+ *      limitations under the License.
+ *
+ *      For the full copyright and license information, please view the LICENSE
+ *      file that was distributed with this source code.
+ */
+
+package io.riddles.khet.game.archive;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import io.riddles.khet.game.board.KhetBoard;
+import io.riddles.khet.game.board.KhetCoordinate;
+import io.riddles.khet.game.board.piece.KhetPiece;
+import io.riddles.khet.game.move.KhetMove;
+import io.riddles.khet.game.move.KhetMoveDeserializer;
+import io.riddles.khet.game.move.KhetMoveMove;
+import io.riddles.khet.game.move.KhetTurnMove;
+import io.riddles.khet.game.move.TurnType;
+import io.riddles.khet.game.processor.KhetProcessor;
+import io.riddles.khet.game.state.KhetPlayerState;
+import io.riddles.khet.game.state.KhetState;
+
+/**
+ * io.riddles.khet.game.archive.KhetArchiveReader - Created on 18-10-26
+ *
+ * Reads games from a binary archive written by KhetArchiveWriter. Every game
+ * is memory mapped on its own the first time it's read and the mapping is
+ * kept, so archives can be bigger than a single mapping. A board or state
+ * is rebuilt from the nearest snapshot before it, so at most one snapshot
+ * interval of turns is replayed. State indices match the "states" array of
+ * the played game: 0 is the initial state, then the state after the move
+ * and the state after the laser for every turn. Safe to use from multiple
+ * threads.
+ *
+ * @author Jim van Eeden - jim@riddles.io
+ */
+public class KhetArchiveReader implements Closeable {
+
+    private FileChannel channel;
+    private ByteBuffer gameIndex;
+    private int gameCount;
+    private AtomicReferenceArray<ByteBuffer> gameBuffers;
+
+    public KhetArchiveReader(Path path) throws IOException {
+        this.channel = FileChannel.open(path, StandardOpenOption.READ);
+
+        try {
+            readGameIndex();
+        } catch (IOException | RuntimeException ex) {
+            this.channel.close();
+            throw ex;
+        }
+    }
+
+    private void readGameIndex() throws IOException {
+        long size = this.channel.size();
+        if (size < KhetArchive.FILE_HEADER_SIZE + KhetArchive.FILE_FOOTER_SIZE) {
+            throw new IOException("File is too small to be a Khet archive");
+        }
+
+        ByteBuffer header = this.channel.map(FileChannel.MapMode.READ_ONLY, 0, KhetArchive.FILE_HEADER_SIZE);
+        ByteBuffer footer = this.channel.map(FileChannel.MapMode.READ_ONLY,
+                size - KhetArchive.FILE_FOOTER_SIZE, KhetArchive.FILE_FOOTER_SIZE);
+
+        if (header.getInt(0) != KhetArchive.MAGIC || footer.getInt(12) != KhetArchive.MAGIC) {
+            throw new IOException("File is not a complete Khet archive");
+        }
+        if (header.getShort(4) != KhetArchive.VERSION) {
+            throw new IOException(String.format("Unsupported archive version %d", header.getShort(4)));
+        }
+
+        this.gameCount = footer.getInt(0);
+        this.gameIndex = this.channel.map(FileChannel.MapMode.READ_ONLY,
+                footer.getLong(4), (long) this.gameCount * KhetArchive.INDEX_ENTRY_SIZE);
+        this.gameBuffers = new AtomicReferenceArray<>(this.gameCount);
+    }
+
+    public int getGameCount() {
+        return this.gameCount;
+    }
+
+    public int getTurnCount(int game) {
+        return mapGame(game).getInt(KhetArchive.GAME_TURN_COUNT);
+    }
+
+    public int getStateCount(int game) {
+        return 1 + getTurnCount(game) * 2;
+    }
+
+    /**
+     * @param game Index of the game
+     * @param turn Index of the turn
+     * @return The laser paths of the turn as square indices (y * width + x)
+     */
+    public int[][] getLaserPaths(int game, int turn) {
+        ByteBuffer buffer = mapGame(game);
+        int record = getTurnRecord(buffer, turn);
+        int offset = buffer.getInt(KhetArchive.GAME_LASERS_OFFSET)
+                + buffer.getInt(record + KhetArchive.TURN_LASER_OFFSET);
+        int[][] laserPaths = new int[buffer.get(record + KhetArchive.TURN_LASER_PATH_COUNT) & 0xff][];
+
+        for (int path = 0; path < laserPaths.length; path++) {
+            int length = buffer.getShort(offset) & 0xffff;
+            offset += 2;
+
+            laserPaths[path] = new int[length];
+            for (int i = 0; i < length; i++) {
+                laserPaths[path][i] = buffer.getShort(offset) & 0xffff;
+                offset += 2;
+            }
+        }
+
+        return laserPaths;
+    }
+
+    /**
+     * @param game Index of the game
+     * @param turn Index of the turn
+     * @return The last piece destroyed by the laser of the turn, or null
+     */
+    public KhetPiece getDestroyedPiece(int game, int turn) {
+        ByteBuffer buffer = mapGame(game);
+        return KhetArchive.decodePiece(buffer.get(getTurnRecord(buffer, turn) + KhetArchive.TURN_DESTROYED_PIECE));
+    }
+
+    /**
+     * Rebuilds the board as it is at the end of given round
+     * @param game Index of the game
+     * @param roundNumber Round number, 0 is the initial board
+     * @return The board
+     */
+    public KhetBoard getBoard(int game, int roundNumber) {
+        ByteBuffer buffer = mapGame(game);
+        int turnCount = countTurnsUntilRound(buffer, roundNumber);
+        int snapshot = Math.min(turnCount / getSnapshotInterval(buffer), getSnapshotCount(buffer) - 1);
+
+        KhetBoard board = createSnapshotBoard(buffer, snapshot);
+        KhetMoveDeserializer moveDeserializer = new KhetMoveDeserializer();
+
+        for (int turn = snapshot * getSnapshotInterval(buffer); turn < turnCount; turn++) {
+            int record = getTurnRecord(buffer, turn);
+            int playerId = buffer.get(record + KhetArchive.TURN_PLAYER);
+
+            board.processMove(createMove(buffer, record, moveDeserializer), playerId);
+            board.fireLaser(playerId);
+        }
+
+        return board;
+    }
+
+    /**
+     * Rebuilds the state as it is at the end of given round
+     * @param game Index of the game
+     * @param roundNumber Round number, 0 is the initial state
+     * @return The state, not linked to other states
+     */
+    public KhetState getStateAtRound(int game, int roundNumber) {
+        return getState(game, countTurnsUntilRound(mapGame(game), roundNumber) * 2);
+    }
+
+    /**
+     * Rebuilds a single state
+     * @param game Index of the game
+     * @param index Index of the state
+     * @return The state, not linked to other states
+     */
+    public KhetState getState(int game, int index) {
+        ByteBuffer buffer = mapGame(game);
+        int turnCount = buffer.getInt(KhetArchive.GAME_TURN_COUNT);
+
+        if (index < 0 || index > turnCount * 2) {
+            throw new IndexOutOfBoundsException(
+                    String.format("State %d doesn't exist, game has %d states", index, 1 + turnCount * 2));
+        }
+
+        if (index == 0) {
+            return createState(createSnapshotBoard(buffer, 0), 0);
+        }
+
+        // the turn that created the state is always replayed, so the state has its move or laser
+        int lastTurn = (index - 1) / 2;
+        int snapshot = Math.min(lastTurn / getSnapshotInterval(buffer), getSnapshotCount(buffer) - 1);
+        int firstTurn = snapshot * getSnapshotInterval(buffer);
+        int roundNumber = firstTurn > 0
+                ? buffer.getInt(getTurnRecord(buffer, firstTurn - 1) + KhetArchive.TURN_ROUND)
+                : 0;
+
+        KhetState state = createState(createSnapshotBoard(buffer, snapshot), roundNumber);
+        state.setKeepHistory(false);
+        KhetMoveDeserializer moveDeserializer = new KhetMoveDeserializer();
+
+        for (int turn = firstTurn; turn <= lastTurn; turn++) {
+            int record = getTurnRecord(buffer, turn);
+            int playerId = buffer.get(record + KhetArchive.TURN_PLAYER);
+            roundNumber = buffer.getInt(record + KhetArchive.TURN_ROUND);
+
+            KhetMove move = createMove(buffer, record, moveDeserializer);
+            state = KhetProcessor.createMovePerformedState(state, move, playerId, roundNumber);
+
+            if (turn < lastTurn || index % 2 == 0) {
+                state = KhetProcessor.createFireLaserState(state, playerId, roundNumber);
+            }
+        }
+
+        return state;
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.channel.close();
+    }
+
+    private ByteBuffer mapGame(int game) {
+        if (game < 0 || game >= this.gameCount) {
+            throw new IndexOutOfBoundsException(
+                    String.format("Game %d doesn't exist, archive has %d games", game, this.gameCount));
+        }
+
+        ByteBuffer buffer = this.gameBuffers.get(game);
+        if (buffer != null) return buffer;
+
+        int entry = game * KhetArchive.INDEX_ENTRY_SIZE;
+
+        try {
+            buffer = this.channel.map(FileChannel.MapMode.READ_ONLY,
+                    this.gameIndex.getLong(entry), this.gameIndex.getInt(entry + 8));
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+
+        // threads that map the same game at once keep the first mapping, only absolute reads are used
+        this.gameBuffers.compareAndSet(game, null, buffer);
+        return this.gameBuffers.get(game);
+    }
+
+    private int getSnapshotInterval(ByteBuffer buffer) {
+        return buffer.getShort(KhetArchive.GAME_SNAPSHOT_INTERVAL);
+    }
+
+    private int getSnapshotCount(ByteBuffer buffer) {
+        return buffer.getInt(KhetArchive.GAME_SNAPSHOT_COUNT);
+    }
+
+    private int getTurnRecord(ByteBuffer buffer, int turn) {
+        if (turn < 0 || turn >= buffer.getInt(KhetArchive.GAME_TURN_COUNT)) {
+            throw new IndexOutOfBoundsException(String.format("Turn %d doesn't exist", turn));
+        }
+
+        return buffer.getInt(KhetArchive.GAME_TURNS_OFFSET) + turn * KhetArchive.TURN_SIZE;
+    }
+
+    /**
+     * Binary search on the fixed width turn records, which are sorted by round
+     * @return Number of turns played in given round and before
+     */
+    private int countTurnsUntilRound(ByteBuffer buffer, int roundNumber) {
+        int low = 0;
+        int high = buffer.getInt(KhetArchive.GAME_TURN_COUNT);
+
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+
+            if (buffer.getInt(getTurnRecord(buffer, middle) + KhetArchive.TURN_ROUND) <= roundNumber) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+
+        return low;
+    }
+
+    private KhetBoard createSnapshotBoard(ByteBuffer buffer, int snapshot) {
+        int width = buffer.get(KhetArchive.GAME_WIDTH) & 0xff;
+        int height = buffer.get(KhetArchive.GAME_HEIGHT) & 0xff;
+        int playerCount = buffer.get(KhetArchive.GAME_PLAYER_COUNT);
+        int squareCount = width * height;
+        int layoutOffset = KhetArchive.GAME_HEADER_SIZE;
+        int snapshotOffset = buffer.getInt(layoutOffset + squareCount + snapshot * 4);
+
+        StringBuilder boardString = new StringBuilder(squareCount * 6);
+        for (int square = 0; square < squareCount; square++) {
+            if (square > 0) {
+                boardString.append(',');
+            }
+
+            boardString.append((char) buffer.get(layoutOffset + square));
+
+            KhetPiece piece = KhetArchive.decodePiece(buffer.get(snapshotOffset + square));
+            boardString.append(piece != null ? piece.toString() : "    ");
+        }
+
+        return new KhetBoard(width, height, playerCount, boardString.toString());
+    }
+
+    private KhetState createState(KhetBoard board, int roundNumber) {
+        ArrayList<KhetPlayerState> playerStates = new ArrayList<>();
+        for (int playerId = 0; playerId < board.getPlayerCount(); playerId++) {
+            playerStates.add(new KhetPlayerState(playerId));
+        }
+
+        KhetState state = new KhetState(playerStates, board, roundNumber);
+        state.updatePlayerStates();
+
+        return state;
+    }
+
+    private KhetMove createMove(ByteBuffer buffer, int record, KhetMoveDeserializer moveDeserializer) {
+        int args = record + KhetArchive.TURN_MOVE_ARGS;
+        KhetCoordinate fromCoordinate = KhetCoordinate.of(buffer.getInt(args), buffer.getInt(args + 4));
+
+        switch (buffer.get(record + KhetArchive.TURN_MOVE_TYPE)) {
+            case KhetArchive.MOVE_MOVE:
+                return new KhetMoveMove(fromCoordinate,
+                        KhetCoordinate.of(buffer.getInt(args + 8), buffer.getInt(args + 12)));
+            case KhetArchive.MOVE_TURN:
+                return new KhetTurnMove(fromCoordinate, TurnType.values()[buffer.getInt(args + 8)]);
+            default:
+                int stringOffset = buffer.getInt(KhetArchive.GAME_STRINGS_OFFSET) + buffer.getInt(args);
+                return moveDeserializer.createUnparsableMove(readString(buffer, stringOffset));
+        }
+    }
+
+    private String readString(ByteBuffer buffer, int offset) {
+        byte[] bytes = new byte[buffer.getShort(offset) & 0xffff];
+
+        ByteBuffer stringBuffer = buffer.duplicate();
+        stringBuffer.position(offset + 2);
+        stringBuffer.get(bytes);
+
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,298 @@
+/*
+ *  Copyright 2017 riddles.io (developers@riddles.io)
+ *
+ *      Licensed under the Apache License, Version 2.0 (the "License");
+ *      you may not use this file except in compliance with the License.
+ *      You may obtain a copy of the License at
+ *
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *      Unless required by applicable law or agreed to in writing, software
+ *      distributed under the License is distributed on an "AS IS" BASIS,
+ *      WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *      See the License for the specific language governing permissions and
+ *      limitations under the License.
+ *
+ *      For the full copyright and license information, please view the LICENSE
+ *      file that was distributed with this source code.
+ */
+
+package io.riddles.khet.game.archive;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+
+import io.riddles.khet.game.board.KhetBoard;
+import io.riddles.khet.game.board.KhetBoardLayout;
+import io.riddles.khet.game.move.KhetMove;
+import io.riddles.khet.game.move.KhetMoveMove;
+import io.riddles.khet.game.move.KhetTurnMove;
+import io.riddles.khet.game.state.KhetPlayerState;
+import io.riddles.khet.game.state.KhetState;
+
+/**
+ * io.riddles.khet.game.archive.KhetArchiveWriter - Created on 18-10-26
+ *
+ * Writes played games to a binary archive that can be read with
+ * KhetArchiveReader. Games are added one by one from their linked state
+ * history, for example the initial state of a KhetReplayDecoder.
+ * The game index is written when the writer is closed.
+ *
+ * @author Jim van Eeden - jim@riddles.io
+ */
+public class KhetArchiveWriter implements Closeable {
+
+    public static final int DEFAULT_SNAPSHOT_INTERVAL = 16;
+
+    private DataOutputStream output;
+    private int snapshotInterval;
+    private long position;
+    private ArrayList<long[]> gameIndex;  // offset and length per game
+
+    public KhetArchiveWriter(OutputStream output) {
+        this(output, DEFAULT_SNAPSHOT_INTERVAL);
+    }
+
+    /**
+     * @param output Stream to write the archive to
+     * @param snapshotInterval Number of turns between full board snapshots,
+     *                         at most this many turns are replayed to read a state
+     */
+    public KhetArchiveWriter(OutputStream output, int snapshotInterval) {
+        if (snapshotInterval < 1 || snapshotInterval > Short.MAX_VALUE) {
+            throw new IllegalArgumentException(
+                    String.format("Invalid snapshot interval %d", snapshotInterval));
+        }
+
+        this.output = new DataOutputStream(new BufferedOutputStream(output));
+        this.snapshotInterval = snapshotInterval;
+        this.gameIndex = new ArrayList<>();
+
+        try {
+            this.output.writeInt(KhetArchive.MAGIC);
+            this.output.writeShort(KhetArchive.VERSION);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        this.position = KhetArchive.FILE_HEADER_SIZE;
+    }
+
+    /**
+     * Adds a game to the archive
+     * @param initialState First state of the game, linked to all next states
+     * @return Index of the game in the archive
+     */
+    public int addGame(KhetState initialState) {
+        byte[] game = encodeGame(initialState);
+
+        try {
+            this.output.write(game);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+
+        this.gameIndex.add(new long[]{this.position, game.length});
+        this.position += game.length;
+
+        return this.gameIndex.size() - 1;
+    }
+
+    /**
+     * Writes the game index and closes the output
+     */
+    @Override
+    public void close() throws IOException {
+        long indexOffset = this.position;
+
+        for (long[] entry : this.gameIndex) {
+            this.output.writeLong(entry[0]);
+            this.output.writeInt((int) entry[1]);
+        }
+
+        this.output.writeInt(this.gameIndex.size());
+        this.output.writeLong(indexOffset);
+        this.output.writeInt(KhetArchive.MAGIC);
+        this.output.close();
+    }
+
+    private byte[] encodeGame(KhetState initialState) {
+        KhetBoard initialBoard = initialState.getBoard();
+        int squareCount = initialBoard.getWidth() * initialBoard.getHeight();
+
+        if (initialBoard.getWidth() > 255 || initialBoard.getHeight() > 255 || squareCount > Short.MAX_VALUE) {
+            throw new IllegalArgumentException("Board is too big for the archive");
+        }
+        if (initialBoard.getPlayerCount() > 4) {
+            throw new IllegalArgumentException("Archive supports at most 4 players");
+        }
+
+        ByteArrayOutputStream turnBytes = new ByteArrayOutputStream();
+        ByteArrayOutputStream laserBytes = new ByteArrayOutputStream();
+        ByteArrayOutputStream stringBytes = new ByteArrayOutputStream();
+        ByteArrayOutputStream snapshotBytes = new ByteArrayOutputStream();
+        DataOutputStream turns = new DataOutputStream(turnBytes);
+        DataOutputStream lasers = new DataOutputStream(laserBytes);
+        DataOutputStream strings = new DataOutputStream(stringBytes);
+
+        int turnCount = 0;
+        int snapshotCount = 1;
+        writeSnapshot(snapshotBytes, initialBoard);
+
+        try {
+            KhetState state = initialState;
+            while (state.hasNextState()) {
+                KhetState movePerformedState = (KhetState) state.getNextState();
+                if (!movePerformedState.hasNextState()) {
+                    throw new IllegalArgumentException("Game ends without laser state");
+                }
+                KhetState laserState = (KhetState) movePerformedState.getNextState();
+
+                writeTurn(turns, lasers, strings, movePerformedState, laserState);
+                turnCount++;
+
+                if (turnCount % this.snapshotInterval == 0) {
+                    writeSnapshot(snapshotBytes, laserState.getBoard());
+                    snapshotCount++;
+                }
+
+                state = laserState;
+            }
+
+            int layoutOffset = KhetArchive.GAME_HEADER_SIZE;
+            int snapshotTableOffset = layoutOffset + squareCount;
+            int snapshotsOffset = snapshotTableOffset + snapshotCount * 4;
+            int turnsOffset = snapshotsOffset + snapshotBytes.size();
+            int lasersOffset = turnsOffset + turnBytes.size();
+            int stringsOffset = lasersOffset + laserBytes.size();
+
+            ByteArrayOutputStream gameBytes = new ByteArrayOutputStream(stringsOffset + stringBytes.size());
+            DataOutputStream game = new DataOutputStream(gameBytes);
+
+            game.writeByte(initialBoard.getWidth());
+            game.writeByte(initialBoard.getHeight());
+            game.writeByte(initialBoard.getPlayerCount());
+            game.writeShort(this.snapshotInterval);
+            game.writeInt(turnCount);
+            game.writeInt(snapshotCount);
+            game.writeInt(turnsOffset);
+            game.writeInt(lasersOffset);
+            game.writeInt(stringsOffset);
+
+            writeLayout(game, initialBoard);
+
+            for (int snapshot = 0; snapshot < snapshotCount; snapshot++) {
+                game.writeInt(snapshotsOffset + snapshot * squareCount);
+            }
+
+            snapshotBytes.writeTo(game);
+            turnBytes.writeTo(game);
+            laserBytes.writeTo(game);
+            stringBytes.writeTo(game);
+            game.flush();
+
+            return gameBytes.toByteArray();
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    private void writeTurn(DataOutputStream turns, DataOutputStream lasers, DataOutputStream strings,
+                           KhetState movePerformedState, KhetState laserState) throws IOException {
+        KhetPlayerState playerState = getMovingPlayerState(movePerformedState);
+        KhetMove move = playerState.getMove();
+        KhetBoard laserBoard = laserState.getBoard();
+
+        turns.writeInt(movePerformedState.getRoundNumber());
+        turns.writeByte(playerState.getPlayerId());
+
+        if (move instanceof KhetMoveMove) {
+            KhetMoveMove moveMove = (KhetMoveMove) move;
+            turns.writeByte(KhetArchive.MOVE_MOVE);
+            turns.writeInt(moveMove.getFromCoordinate().getX());
+            turns.writeInt(moveMove.getFromCoordinate().getY());
+            turns.writeInt(moveMove.getToCoordinate().getX());
+            turns.writeInt(moveMove.getToCoordinate().getY());
+        } else if (move instanceof KhetTurnMove) {
+            KhetTurnMove turnMove = (KhetTurnMove) move;
+            turns.writeByte(KhetArchive.MOVE_TURN);
+            turns.writeInt(turnMove.getFromCoordinate().getX());
+            turns.writeInt(turnMove.getFromCoordinate().getY());
+            turns.writeInt(turnMove.getTurnType().ordinal());
+            turns.writeInt(0);
+        } else {
+            turns.writeByte(KhetArchive.MOVE_UNPARSABLE);
+            turns.writeInt(strings.size());
+            turns.writeInt(0);
+            turns.writeInt(0);
+            turns.writeInt(0);
+            writeString(strings, move.getException() != null ? move.getException().getMessage() : "");
+        }
+
+        turns.writeShort(laserBoard.getDestroyedSquare());
+        turns.writeByte(KhetArchive.encodePiece(laserBoard.getDestroyedPiece()));
+        turns.writeInt(lasers.size());
+        turns.writeByte(laserBoard.getLaserPathCount());
+
+        for (int path = 0; path < laserBoard.getLaserPathCount(); path++) {
+            int length = laserBoard.getLaserPathLength(path);
+            lasers.writeShort(length);
+
+            for (int i = 0; i < length; i++) {
+                lasers.writeShort(laserBoard.getLaserPathSquare(path, i));
+            }
+        }
+    }
+
+    /**
+     * Writes the string, cut to at most KhetArchive.MAX_STRING_LENGTH bytes
+     * without splitting a multi-byte character
+     */
+    private void writeString(DataOutputStream strings, String string) throws IOException {
+        byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+        int length = bytes.length;
+
+        if (length > KhetArchive.MAX_STRING_LENGTH) {
+            length = KhetArchive.MAX_STRING_LENGTH;
+            while (length > 0 && (bytes[length] & 0xc0) == 0x80) {  // first cut byte continues a character
+                length--;
+            }
+        }
+
+        strings.writeShort(length);
+        strings.write(bytes, 0, length);
+    }
+
+    private void writeLayout(DataOutputStream game, KhetBoard board) throws IOException {
+        KhetBoardLayout layout = board.getLayout();
+
+        for (int square = 0; square < board.getWidth() * board.getHeight(); square++) {
+            game.writeByte(layout.getLayoutChar(square));
+        }
+    }
+
+    private void writeSnapshot(ByteArrayOutputStream snapshots, KhetBoard board) {
+        for (int y = 0; y < board.getHeight(); y++) {
+            for (int x = 0; x < board.getWidth(); x++) {
+                snapshots.write(KhetArchive.encodePiece(board.getPieceAt(x, y)));
+            }
+        }
+    }
+
+    private KhetPlayerState getMovingPlayerState(KhetState movePerformedState) {
+        for (KhetPlayerState playerState : movePerformedState.getPlayerStates()) {
+            if (playerState.getMove() != null) {
+                return playerState;
+            }
+        }
+
+        throw new IllegalArgumentException(
+                String.format("No move found in state of round %d", movePerformedState.getRoundNumber()));
+    }
+}
@@ -0,0 +1,175 @@
+/*
+ *  Copyright 2017 riddles.io (developers@riddles.io)
+ *
+ *      Licensed under the Apache License, Version 2.0 (the "License");
+ *      you may not use this file except in compliance with the License.
+ *      You may obtain a copy of the License at
+ *
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *      Unless required by applicable law or agreed to in writing, software
+ *      distributed under the License is distributed on an "AS IS" BASIS,
+ *      WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *      See the License for the specific language governing permissions and
+ *      limitations under the License.
+ *
+ *      For the full copyright and license information, please view the LICENSE
+ *      file that was distributed with this source code.
+ */
+
+package io.riddles.khet.game.board;
+
+/**
+ * io.riddles.khet.game.board.KhetBitboard - Created on 18-10-26
+ *
+ * Static helpers for bitboards stored as long arrays. Square index is
+ * y * width + x, so bit order matches the order of the board string.
+ * The default 10x8 board fits in two longs, bigger boards just use more.
+ *
+ * @author Jim van Eeden - jim@riddles.io
+ */
+public final class KhetBitboard {
+
+    private KhetBitboard() {}
+
+    public static long[] create(int squareCount) {
+        return new long[(squareCount + 63) >>> 6];
+    }
+
+    public static void set(long[] bitboard, int square) {
+        bitboard[square >>> 6] |= 1L << square;
+    }
+
+    public static void clear(long[] bitboard, int square) {
+        bitboard[square >>> 6] &= ~(1L << square);
+    }
+
+    public static boolean get(long[] bitboard, int square) {
+        return (bitboard[square >>> 6] & (1L << square)) != 0;
+    }
+
+    public static void clearAll(long[] bitboard) {
+        for (int i = 0; i < bitboard.length; i++) {
+            bitboard[i] = 0;
+        }
+    }
+
+    public static boolean isEmpty(long[] bitboard) {
+        for (long word : bitboard) {
+            if (word != 0) return false;
+        }
+
+        return true;
+    }
+
+    public static int popCount(long[] bitboard) {
+        int count = 0;
+        for (long word : bitboard) {
+            count += Long.bitCount(word);
+        }
+
+        return count;
+    }
+
+    public static int popCountAnd(long[] a, long[] b) {
+        int count = 0;
+        for (int i = 0; i < a.length; i++) {
+            count += Long.bitCount(a[i] & b[i]);
+        }
+
+        return count;
+    }
+
+    public static boolean intersects(long[] a, long[] b) {
+        for (int i = 0; i < a.length; i++) {
+            if ((a[i] & b[i]) != 0) return true;
+        }
+
+        return false;
+    }
+
+    /**
+     * Finds the lowest square set in both bitboards, starting at given square
+     * @param a First bitboard
+     * @param b Second bitboard
+     * @param fromSquare First square to consider
+     * @return Square index, or -1 if there is none
+     */
+    public static int nextSquareAnd(long[] a, long[] b, int fromSquare) {
+        int index = fromSquare >>> 6;
+        if (index >= a.length) return -1;
+
+        long word = a[index] & b[index] & (-1L << fromSquare);
+
+        while (true) {
+            if (word != 0) {
+                return (index << 6) + Long.numberOfTrailingZeros(word);
+            }
+
+            if (++index >= a.length) return -1;
+
+            word = a[index] & b[index];
+        }
+    }
+
+    /**
+     * Finds the lowest set bit of a bit set stored in part of a long array,
+     * like a row or column of the board
+     * @param words Array holding the bit set
+     * @param offset Index of the first word of the bit set
+     * @param length Amount of words in the bit set
+     * @param fromBit First bit to consider
+     * @return Bit index within the bit set, or -1 if there is none
+     */
+    public static int nextSetBit(long[] words, int offset, int length, int fromBit) {
+        int index = fromBit >>> 6;
+        if (index >= length) return -1;
+
+        long word = words[offset + index] & (-1L << fromBit);
+
+        while (true) {
+            if (word != 0) {
+                return (index << 6) + Long.numberOfTrailingZeros(word);
+            }
+
+            if (++index >= length) return -1;
+
+            word = words[offset + index];
+        }
+    }
+
+    /**
+     * Finds the highest set bit of a bit set stored in part of a long array,
+     * looking down from given bit
+     * @param words Array holding the bit set
+     * @param offset Index of the first word of the bit set
+     * @param fromBit First bit to consider, may be -1
+     * @return Bit index within the bit set, or -1 if there is none
+     */
+    public static int previousSetBit(long[] words, int offset, int fromBit) {
+        if (fromBit < 0) return -1;
+
+        int index = fromBit >>> 6;
+        long word = words[offset + index] & (-1L >>> (63 - (fromBit & 63)));
+
+        while (true) {
+            if (word != 0) {
+                return (index << 6) + 63 - Long.numberOfLeadingZeros(word);
+            }
+
+            if (--index < 0) return -1;
+
+            word = words[offset + index];
+        }
+    }
+
+    /**
+     * Finds the lowest set square, starting at given square
+     * @param bitboard Bitboard to search
+     * @param fromSquare First square to consider
+     * @return Square index, or -1 if there is none
+     */
+    public static int nextSquare(long[] bitboard, int fromSquare) {
+        return nextSquareAnd(bitboard, bitboard, fromSquare);
+    }
+}
@@ -19,8 +19,8 @@
 
 package io.riddles.khet.game.board;
 
-import java.awt.Point;
 import java.util.ArrayList;
+import java.util.Arrays;
 
 import io.riddles.javainterface.exception.InvalidMoveException;
 import io.riddles.javainterface.game.data.Board;
@@ -41,9 +41,57 @@ import io.riddles.khet.game.move.TurnType;
  */
 public class KhetBoard extends Board<KhetPiece> {
 
+    private static final int CELL_LENGTH = 5;  // layout character plus piece shorthand
+    private static final int INITIAL_LIST_CAPACITY = 16;
+
     private int playerCount;
-    private String[][] boardLayout;  // Contains what the board looks like without pieces, doesn't change
-    private ArrayList<ArrayList<Point>> laserPaths;
+    private KhetBoardLayout layout;  // What the board looks like without pieces, shared with copies
+    private ArrayList<ArrayList<KhetCoordinate>> laserPaths;  // Built from the laser buffers when requested
+
+    // Squares of the last shot, path i runs from laserPathStarts[i] to laserPathStarts[i + 1]
+    private int[] laserSquares;
+    private int[] laserPathStarts;
+    private int laserPathCount;
+    private int destroyedCount;  // Pieces destroyed by the last shot, the last one is stored below
+    private int destroyedSquare;
+    private KhetPiece destroyedPiece;
+    private long[] shotDestroyed;  // Every piece destroyed by the last shot, encoded like KhetUndo
+    private long[] undoStack;  // Pieces of makeMove shots that destroyed more than one piece, not copied
+    private int undoStackSize;
+    private KhetLaserTrace[] laserTraces;  // Last path of every sphinx square that fired, not copied
+    private int laserTraceCount;
+
+    // Bitboards that mirror the fields, square index is y * width + x
+    private long[] occupiedMask;
+    private long[][] playerMasks;
+    private long[][] typeMasks;
+    private long[][] orientationMasks;
+
+    // Occupancy per row (bit x of row y) and per column (bit y of column x),
+    // so the next piece in a direction is found with a single bit scan
+    private long[] rowMasks;
+    private long[] columnMasks;
+    private int rowWords;
+    private int columnWords;
+
+    private long zobristHash;  // Xor of the keys of all pieces, see KhetZobrist
+
+    // Kept up to date by placePiece and removePiece
+    private int[] pieceCounts;
+    private int[] pharaohCounts;
+    private int noPharaohPlayerCount;
+
+    // Piece list per player, the first pieceCounts[id] entries hold the squares in no particular order
+    private int[][] pieceSquares;
+    private int[] pieceListIndex;  // Position in the piece list of the piece on each square
+    private int[][] sphinxSquares;  // Sphinx squares per player in ascending order, the order they fire in
+    private int[] sphinxCounts;
+
+    // Textual form of every cell, patched whenever a square changes. The first
+    // character of a cell is the layout character, it only changes when the board string is set.
+    private char[] cellChars;
+    private char[] stringBuffer;
+    private String cachedString;
 
     public KhetBoard(int width, int height, int playerCount, String fieldInput) {
         super(width, height);
@@ -51,40 +99,138 @@ public class KhetBoard extends Board<KhetPiece> {
         this.setFieldsFromString(fieldInput);
     }
 
+    /**
+     * Copies the pieces and bitboards of given board. The laser paths are
+     * not copied, the new board starts without any laser on it and the
+     * first shot on it is traced in full.
+     * @param board Board to copy
+     */
     public KhetBoard(KhetBoard board) {
         super(board.getWidth(), board.getHeight());
-        initializeBoard(board.getWidth(), board.getHeight(), board.getPlayerCount());
-        this.setFieldsFromString(board.toString());
+        this.playerCount = board.getPlayerCount();
+        this.layout = board.layout;
+        initializeLaser();
+
+        // Pieces are immutable, so only the columns are copied
+        this.fields = new KhetPiece[this.width][];
+        for (int x = 0; x < this.width; x++) {
+            this.fields[x] = board.fields[x].clone();
+        }
+
+        this.occupiedMask = board.occupiedMask.clone();
+        this.playerMasks = copyMasks(board.playerMasks);
+        this.typeMasks = copyMasks(board.typeMasks);
+        this.orientationMasks = copyMasks(board.orientationMasks);
+        this.rowMasks = board.rowMasks.clone();
+        this.columnMasks = board.columnMasks.clone();
+        this.rowWords = board.rowWords;
+        this.columnWords = board.columnWords;
+        this.zobristHash = board.zobristHash;
+        this.pieceCounts = board.pieceCounts.clone();
+        this.pharaohCounts = board.pharaohCounts.clone();
+        this.noPharaohPlayerCount = board.noPharaohPlayerCount;
+        this.pieceSquares = copyLists(board.pieceSquares);
+        this.pieceListIndex = board.pieceListIndex.clone();
+        this.sphinxSquares = copyLists(board.sphinxSquares);
+        this.sphinxCounts = board.sphinxCounts.clone();
+
+        this.cellChars = board.cellChars.clone();
+        this.cachedString = board.cachedString;
     }
 
     private void initializeBoard(int width, int height, int playerCount) {
         this.playerCount = playerCount;
         this.fields = new KhetPiece[width][height];
-        this.boardLayout = new String[width][height];
+        this.cellChars = new char[width * height * CELL_LENGTH];
+        initializeLaser();
+
+        int squareCount = width * height;
+        this.occupiedMask = KhetBitboard.create(squareCount);
+        this.rowWords = (width + 63) >>> 6;
+        this.columnWords = (height + 63) >>> 6;
+        this.rowMasks = new long[height * this.rowWords];
+        this.columnMasks = new long[width * this.columnWords];
+        this.pieceCounts = new int[playerCount];
+        this.pharaohCounts = new int[playerCount];
+        this.noPharaohPlayerCount = playerCount;
+        this.pieceSquares = new int[playerCount][INITIAL_LIST_CAPACITY];
+        this.pieceListIndex = new int[squareCount];
+        this.sphinxSquares = new int[playerCount][1];
+        this.sphinxCounts = new int[playerCount];
+        this.playerMasks = new long[playerCount][];
+        for (int id = 0; id < playerCount; id++) {
+            this.playerMasks[id] = KhetBitboard.create(squareCount);
+        }
+        this.typeMasks = new long[KhetPieceType.values().length][];
+        for (KhetPieceType type : KhetPieceType.values()) {
+            this.typeMasks[type.ordinal()] = KhetBitboard.create(squareCount);
+        }
+        this.orientationMasks = new long[KhetPieceOrientation.values().length][];
+        for (KhetPieceOrientation orientation : KhetPieceOrientation.values()) {
+            this.orientationMasks[orientation.ordinal()] = KhetBitboard.create(squareCount);
+        }
+    }
+
+    private void initializeLaser() {
         this.laserPaths = new ArrayList<>();
+        this.laserSquares = new int[this.width * this.height];
+        this.laserPathStarts = new int[3];
+        this.laserPathCount = 0;
+        this.destroyedCount = 0;
+        this.destroyedSquare = -1;
+        this.shotDestroyed = new long[2];
+        this.undoStack = new long[0];
+        this.undoStackSize = 0;
+    }
+
+    private long[][] copyMasks(long[][] masks) {
+        long[][] copy = new long[masks.length][];
+        for (int i = 0; i < masks.length; i++) {
+            copy[i] = masks[i].clone();
+        }
+
+        return copy;
+    }
+
+    private int[][] copyLists(int[][] lists) {
+        int[][] copy = new int[lists.length][];
+        for (int i = 0; i < lists.length; i++) {
+            copy[i] = lists[i].clone();
+        }
+
+        return copy;
     }
 
     /**
-     * Creates comma separated String
+     * Creates comma separated String. The result is cached until the board changes.
      * @return String
      */
     public String toString() {
-        String output = "";
-        String connector = "";
+        if (this.cachedString != null) {
+            return this.cachedString;
+        }
 
-        for (int y = 0; y < this.height; y++) {
-            for (int x = 0; x < this.width; x++) {
-                if (this.fields[x][y] == null) {
-                    output += connector + this.boardLayout[x][y];
-                } else {
-                    output += connector + this.boardLayout[x][y] + this.fields[x][y];
-                }
+        if (this.stringBuffer == null) {
+            this.stringBuffer = new char[this.width * this.height * (CELL_LENGTH + 1)];
+        }
+
+        int length = 0;
+        for (int offset = 0; offset < this.cellChars.length; offset += CELL_LENGTH) {
+            if (offset > 0) {
+                this.stringBuffer[length++] = ',';
+            }
+
+            this.stringBuffer[length++] = this.cellChars[offset];
 
-                connector = ",";
+            if (this.cellChars[offset + 1] != ' ') {
+                System.arraycopy(this.cellChars, offset + 1, this.stringBuffer, length, CELL_LENGTH - 1);
+                length += CELL_LENGTH - 1;
             }
         }
 
-        return output;
+        this.cachedString = new String(this.stringBuffer, 0, length);
+
+        return this.cachedString;
     }
 
     public void dump() {
@@ -93,10 +239,12 @@ public class KhetBoard extends Board<KhetPiece> {
             for (int x = 0; x < this.width; x++) {
                 String cell;
 
+                char layoutChar = this.layout.getLayoutChar(y * this.width + x);
+
                 if (this.fields[x][y] != null) {
-                    cell = this.boardLayout[x][y] + this.fields[x][y] + " ";
+                    cell = layoutChar + this.fields[x][y].toString() + " ";
                 } else {
-                    cell = this.boardLayout[x][y] + "     ";
+                    cell = layoutChar + "     ";
                 }
 
                 line += cell;
@@ -110,26 +258,92 @@ public class KhetBoard extends Board<KhetPiece> {
     @Override
     public void clear() {}
 
+    /**
+     * Fills the board in a single pass over the characters. Cells are separated
+     * by commas and are either a layout character or a layout character
+     * followed by a piece shorthand, whitespace around a cell is ignored.
+     * @param input Board string with exactly width * height cells
+     */
     @Override
     public void setFieldsFromString(String input) {
-        String[] split = input.split(",");
-        int x = 0;
-        int y = 0;
-
-        for (String fieldString : split) {
-            fieldString = fieldString.trim();
-            if (fieldString.length() != 5 && fieldString.length() != 1) {
-                throw new RuntimeException(
-                        String.format("Field string not of correct length '%s'", fieldString));
+        int squareCount = this.width * this.height;
+        int inputEnd = input.length();
+        int square = 0;
+        char[] layoutChars = null;  // only created when the layout differs from the current one
+
+        clearMasks();
+        this.laserTraceCount = 0;
+        this.undoStackSize = 0;  // undo records of the old position are no longer valid
+
+        // trailing commas are ignored, like the trailing empty strings of split
+        while (inputEnd > 0 && input.charAt(inputEnd - 1) == ',') {
+            inputEnd--;
+        }
+
+        int position = 0;
+        while (inputEnd > 0 && position <= inputEnd) {
+            int cellEnd = position;
+            while (cellEnd < inputEnd && input.charAt(cellEnd) != ',') {
+                cellEnd++;
             }
 
-            this.boardLayout[x][y] = fieldString.substring(0, 1);
-            this.fields[x][y] = fieldFromString(fieldString.substring(1));
+            int start = position;
+            int end = cellEnd;
+            while (start < end && input.charAt(start) <= ' ') start++;
+            while (end > start && input.charAt(end - 1) <= ' ') end--;
 
-            if (++x == this.width) {
-                x = 0;
-                y++;
+            if (end - start != CELL_LENGTH && end - start != 1) {
+                throw new RuntimeException(String.format(
+                        "Field string not of correct length '%s' at cell %d (character %d)",
+                        input.substring(start, end), square, start));
             }
+            if (square >= squareCount) {
+                throw new RuntimeException(String.format(
+                        "Board string has more than %d cells, cell %d starts at character %d",
+                        squareCount, square, start));
+            }
+
+            KhetPiece piece = null;
+            if (end - start == CELL_LENGTH) {
+                piece = KhetPiece.parse(input, start + 1);
+
+                if (piece == null) {
+                    throw new RuntimeException(String.format("Unknown piece '%s' at cell %d (character %d)",
+                            input.substring(start + 1, end), square, start + 1));
+                }
+            }
+
+            int x = square % this.width;
+            int y = square / this.width;
+            char layoutChar = input.charAt(start);
+
+            if (layoutChars == null && (this.layout == null || this.layout.getLayoutChar(square) != layoutChar)) {
+                layoutChars = new char[squareCount];
+                for (int i = 0; i < square; i++) {
+                    layoutChars[i] = this.layout.getLayoutChar(i);
+                }
+            }
+            if (layoutChars != null) {
+                layoutChars[square] = layoutChar;
+            }
+
+            this.cellChars[square * CELL_LENGTH] = layoutChar;
+            this.fields[x][y] = null;
+            placePiece(x, y, piece);
+            writeCell(x, y);
+
+            square++;
+            position = cellEnd + 1;
+        }
+
+        if (square != squareCount) {
+            throw new RuntimeException(String.format(
+                    "Board string has %d cells, expected %d for a %dx%d board",
+                    square, squareCount, this.width, this.height));
+        }
+
+        if (layoutChars != null) {
+            this.layout = KhetBoardLayout.of(this.width, this.height, this.playerCount, layoutChars);
         }
     }
 
@@ -138,287 +352,766 @@ public class KhetBoard extends Board<KhetPiece> {
      * @return Array with player id as index and values piece count
      */
     public int[] countPlayerPieces() {
-        int[] playerPieces = new int[this.playerCount];
-        for (int i = 0; i < this.playerCount; i++) {
-            playerPieces[i] = 0;
-        }
+        return this.pieceCounts.clone();
+    }
 
-        for (int y = 0; y < this.height; y++) {
-            for (int x = 0; x < this.width; x++) {
-                try {
-                    KhetPiece piece = this.fields[x][y];
-                    playerPieces[piece.getPlayerId()]++;
-                } catch (Exception ignored) {}
-            }
-        }
+    public int getPieceCount(int playerId) {
+        return this.pieceCounts[playerId];
+    }
+
+    /**
+     * Squares of the pieces of a player, only the first getPieceCount(playerId)
+     * entries are valid. The order changes when pieces move.
+     * This is a live view of the board, it must not be modified.
+     * @param playerId Owner of the pieces
+     * @return Square indices (y * width + x)
+     */
+    public int[] getPieceSquares(int playerId) {
+        return this.pieceSquares[playerId];
+    }
+
+    public int getSphinxCount(int playerId) {
+        return this.sphinxCounts[playerId];
+    }
 
-        return playerPieces;
+    /**
+     * @param playerId Owner of the sphinx
+     * @param index Index of the sphinx, sphinxes are ordered by square
+     * @return Square index (y * width + x)
+     */
+    public int getSphinxSquare(int playerId, int index) {
+        return this.sphinxSquares[playerId][index];
     }
 
     public ArrayList<Integer> getNoPharaohPlayerIds() {
         ArrayList<Integer> noPharaohPlayerIds = new ArrayList<>();
-        for (int id = 0; id < this.playerCount; id++) {
-            noPharaohPlayerIds.add(id, id);
-        }
+        if (this.noPharaohPlayerCount == 0) return noPharaohPlayerIds;
 
-        for (int y = 0; y < this.height; y++) {
-            for (int x = 0; x < this.width; x++) {
-                KhetPiece piece = this.fields[x][y];
-                if (piece != null && piece.getType() == KhetPieceType.PHARAOH) {
-                    noPharaohPlayerIds.remove(Integer.valueOf(piece.getPlayerId()));
-                }
+        for (int id = 0; id < this.playerCount; id++) {
+            if (!hasPharaoh(id)) {
+                noPharaohPlayerIds.add(id);
             }
         }
 
         return noPharaohPlayerIds;
     }
 
+    /**
+     * @return Amount of players that have lost their pharaoh, the game ends if this isn't 0
+     */
+    public int getNoPharaohPlayerCount() {
+        return this.noPharaohPlayerCount;
+    }
+
+    public boolean hasPharaoh(int playerId) {
+        return this.pharaohCounts[playerId] > 0;
+    }
+
+    /**
+     * Counts the amount of pieces of given type a player has
+     * @param playerId Owner of the pieces
+     * @param type Type of the pieces
+     * @return Piece count
+     */
+    public int countPieces(int playerId, KhetPieceType type) {
+        return KhetBitboard.popCountAnd(this.playerMasks[playerId], this.typeMasks[type.ordinal()]);
+    }
+
+    /**
+     * Validates and performs a move. If the move is not valid the board
+     * doesn't change and the exception of the move is set.
+     * @param move Move to perform
+     * @param playerId Player performing the move
+     */
     public void processMove(KhetMove move, int playerId) {
-        if (move.isInvalid()) return;
+        KhetMoveResult result = performMove(move, playerId);
 
-        KhetPiece piece;
-        try {
-            piece = getPieceFromMove(move, playerId);
-        } catch (InvalidMoveException ex) {
-            move.setException(ex);
-            return;
+        if (result.getMessage() != null) {
+            move.setException(new InvalidMoveException(result.getMessage()));
         }
+    }
+
+    /**
+     * Validates and performs a move without creating any objects. If the move
+     * is not valid the board doesn't change, the move itself is never changed.
+     * @param move Move to perform
+     * @param playerId Player performing the move
+     * @return VALID if the move is performed, otherwise the reason it isn't
+     */
+    public KhetMoveResult performMove(KhetMove move, int playerId) {
+        KhetMoveResult result = validateMove(move, playerId);
+        if (result != KhetMoveResult.VALID) return result;
+
+        KhetCoordinate from = move.getFromCoordinate();
 
         if (move instanceof KhetMoveMove) {
-            processMoveMove((KhetMoveMove) move, piece);
+            KhetCoordinate to = ((KhetMoveMove) move).getToCoordinate();
+            KhetPiece oldSquare = removePiece(to.getX(), to.getY());
+            KhetPiece piece = removePiece(from.getX(), from.getY());
+            placePiece(to.getX(), to.getY(), piece);
+            placePiece(from.getX(), from.getY(), oldSquare);
         } else if (move instanceof KhetTurnMove) {
-            processTurnMove((KhetTurnMove) move, piece);
+            KhetPiece piece = removePiece(from.getX(), from.getY());
+            placePiece(from.getX(), from.getY(), piece.turn(((KhetTurnMove) move).getTurnType()));
         }
+
+        return result;
     }
 
-    public void fireLaser(int playerId) {
-        for (int y = 0; y < this.height; y++) {
-            for (int x = 0; x < this.width; x++) {
-                KhetPiece piece = this.fields[x][y];
+    /**
+     * Checks whether a move can be performed by given player, without creating any objects
+     * @param move Move to validate
+     * @param playerId Player performing the move
+     * @return VALID or the reason the move can't be performed
+     */
+    public KhetMoveResult validateMove(KhetMove move, int playerId) {
+        if (move.isInvalid()) return KhetMoveResult.ALREADY_INVALID;
 
-                if (piece != null &&
-                        piece.getType() == KhetPieceType.SPHINX &&
-                        piece.getPlayerId() == playerId) {
+        KhetCoordinate from = move.getFromCoordinate();
+        if (isOutsideBoard(from.getX(), from.getY())) return KhetMoveResult.FROM_OUTSIDE_BOARD;
 
-                    ArrayList<Point> laserPath = new ArrayList<>();
-                    Point base = new Point(x, y);
-                    laserPath.add(base);
+        KhetPiece piece = this.fields[from.getX()][from.getY()];
+        if (piece == null) return KhetMoveResult.NO_PIECE;
+        if (piece.getPlayerId() != playerId) return KhetMoveResult.NOT_OWN_PIECE;
 
-                    progressLaser(base, piece.getOrientation().getDirection(), laserPath);
+        if (move instanceof KhetMoveMove) {
+            KhetCoordinate to = ((KhetMoveMove) move).getToCoordinate();
+            return validateMoveMove(from.getX(), from.getY(), to.getX(), to.getY(), piece);
+        }
+        if (move instanceof KhetTurnMove) {
+            return validateTurnMove(from.getX(), from.getY(), piece, ((KhetTurnMove) move).getTurnType());
+        }
 
-                    this.laserPaths.add(laserPath);
-                }
-            }
+        return KhetMoveResult.VALID;
+    }
+
+    /**
+     * Performs a move from KhetMoveGenerator. The move is not validated, so
+     * it must be a legal move for the current position.
+     * @param move Encoded move
+     */
+    public void applyMove(int move) {
+        int from = KhetMoveGenerator.getFromSquare(move);
+        int fromX = from % this.width;
+        int fromY = from / this.width;
+
+        if (KhetMoveGenerator.isTurn(move)) {
+            KhetPiece piece = removePiece(fromX, fromY);
+            placePiece(fromX, fromY, piece.turn(KhetMoveGenerator.getTurnType(move)));
+            return;
         }
+
+        int to = KhetMoveGenerator.getToSquare(move);
+        int toX = to % this.width;
+        int toY = to / this.width;
+
+        KhetPiece piece = removePiece(fromX, fromY);
+        KhetPiece oldSquare = removePiece(toX, toY);
+        placePiece(toX, toY, piece);
+        placePiece(fromX, fromY, oldSquare);
     }
 
-    private KhetPiece getPieceFromMove(KhetMove move, int playerId) throws InvalidMoveException {
-        KhetPiece piece = this.getFieldAt(move.getFromCoordinate());
+    /**
+     * Performs a move from KhetMoveGenerator and fires the laser of the player,
+     * like a full player turn. The move is not validated. When the shot
+     * destroys more than one piece, the others are kept on the undo stack
+     * of this board, so undo records must be undone in reverse order.
+     * @param move Encoded move
+     * @param playerId Player performing the move
+     * @return Undo record to pass to unmakeMove, see KhetUndo
+     * @throws IllegalArgumentException If the board has more than KhetMoveGenerator.MAX_SQUARE_COUNT squares
+     */
+    public long makeMove(int move, int playerId) {
+        KhetMoveGenerator.checkSquareCount(this.width, this.height);
+        applyMove(move);
+        fireLaser(playerId);
+
+        long undo = KhetUndo.encode(move, this.destroyedSquare, this.destroyedPiece);
+        if (this.destroyedCount <= 1) return undo;
+
+        // the last destroyed piece is in the record, the others and their count go on the stack
+        int extraCount = this.destroyedCount - 1;
+        if (this.undoStackSize + extraCount + 1 > this.undoStack.length) {
+            this.undoStack = Arrays.copyOf(this.undoStack,
+                    Math.max(this.undoStack.length * 2, this.undoStackSize + extraCount + 1));
+        }
+        System.arraycopy(this.shotDestroyed, 0, this.undoStack, this.undoStackSize, extraCount);
+        this.undoStackSize += extraCount;
+        this.undoStack[this.undoStackSize++] = extraCount;
+
+        return KhetUndo.withMoreDestroyed(undo);
+    }
 
-        if (piece == null) {
-            throw new InvalidMoveException("There is no piece at selected coordinate");
+    /**
+     * Restores the board to how it was before makeMove. Pieces, bitboards,
+     * hash and board string are restored, laser paths are not.
+     * @param undo Undo record returned by makeMove
+     */
+    public void unmakeMove(long undo) {
+        if (KhetUndo.hasMoreDestroyed(undo)) {
+            int extraCount = (int) this.undoStack[--this.undoStackSize];
+            for (int i = 0; i < extraCount; i++) {
+                long destroyed = this.undoStack[--this.undoStackSize];
+                int square = KhetUndo.getDestroyedSquare(destroyed);
+                placePiece(square % this.width, square / this.width, KhetUndo.getDestroyedPiece(destroyed));
+            }
         }
 
-        if (piece.getPlayerId() != playerId) {
-            throw new InvalidMoveException("Selected piece is not your piece");
+        int destroyedSquare = KhetUndo.getDestroyedSquare(undo);
+        if (destroyedSquare >= 0) {
+            placePiece(destroyedSquare % this.width, destroyedSquare / this.width,
+                    KhetUndo.getDestroyedPiece(undo));
         }
 
-        return piece;
+        int move = KhetUndo.getMove(undo);
+        if (KhetMoveGenerator.isTurn(move)) {
+            TurnType turnType = KhetMoveGenerator.getTurnType(move) == TurnType.CLOCKWISE
+                    ? TurnType.COUNTERCLOCKWISE
+                    : TurnType.CLOCKWISE;
+            applyMove(KhetMoveGenerator.encodeTurn(KhetMoveGenerator.getFromSquare(move), turnType));
+        } else {
+            applyMove(move);  // swapping the two squares again restores them
+        }
     }
 
-    private void processMoveMove(KhetMoveMove move, KhetPiece piece) {
-        try {
-            validateMoveMove(move, piece);
-        } catch (InvalidMoveException ex) {
-            move.setException(ex);
-            return;
-        }
+    /**
+     * @return Square of the last piece destroyed by the last shot, or -1 if there is none
+     */
+    public int getDestroyedSquare() {
+        return this.destroyedSquare;
+    }
+
+    /**
+     * @return The last piece destroyed by the last shot, or null if there is none
+     */
+    public KhetPiece getDestroyedPiece() {
+        return this.destroyedPiece;
+    }
 
-        Point to = move.getToCoordinate();
-        Point from = move.getFromCoordinate();
-        KhetPiece oldSquare = this.fields[to.x][to.y];
-        this.fields[to.x][to.y] = piece;
-        this.fields[from.x][from.y] = oldSquare;
+    /**
+     * Fires the lasers of all sphinxes of given player. The paths of this shot
+     * replace the paths of any earlier shot on this board.
+     * @param playerId Player whose lasers fire
+     */
+    public void fireLaser(int playerId) {
+        int[] sphinxes = this.sphinxSquares[playerId];
+
+        this.laserPathCount = 0;
+        this.laserPathStarts[0] = 0;
+        this.laserPaths = null;
+        this.destroyedCount = 0;
+        this.destroyedSquare = -1;
+        this.destroyedPiece = null;
+
+        // lasers never destroy a sphinx, so the list doesn't change while firing
+        for (int i = 0; i < this.sphinxCounts[playerId]; i++) {
+            int square = sphinxes[i];
+            KhetPiece piece = this.fields[square % this.width][square / this.width];
+            int end = traceLaser(square, piece.getOrientation().ordinal(), this.laserPathStarts[this.laserPathCount]);
+
+            if (this.laserPathCount + 2 > this.laserPathStarts.length) {
+                this.laserPathStarts = Arrays.copyOf(this.laserPathStarts, this.laserPathStarts.length * 2);
+            }
+            this.laserPathStarts[++this.laserPathCount] = end;
+        }
     }
 
-    private void validateMoveMove(KhetMoveMove move, KhetPiece piece) throws InvalidMoveException {
+    private KhetMoveResult validateMoveMove(int fromX, int fromY, int toX, int toY, KhetPiece piece) {
         switch (piece.getType()) {
             case PHARAOH:
             case ANUBIS:
             case PYRAMID:
-                validatePieceMove(move, piece, false);
-                break;
+                return validatePieceMove(fromX, fromY, toX, toY, piece, false);
             case SCARAB:
-                validatePieceMove(move, piece, true);
-                break;
+                return validatePieceMove(fromX, fromY, toX, toY, piece, true);
             case SPHINX:
-                throw new InvalidMoveException("Can't move a Sphinx piece");
+                return KhetMoveResult.SPHINX_MOVE;
             default:
                 throw new RuntimeException("Unknown piece type");
         }
     }
 
-    private void validatePieceMove(KhetMoveMove move, KhetPiece piece, boolean canSwitch) throws InvalidMoveException {
-        Point to = move.getToCoordinate();
-        Point from = move.getFromCoordinate();
-        int opponentId = 2 - (piece.getPlayerId() + 1);
-
-        if (Math.abs(to.x - from.x) > 1 || Math.abs(to.y - from.y) > 1) {
-            throw new InvalidMoveException("Piece can only move to a neighboring square");
+    private KhetMoveResult validatePieceMove(int fromX, int fromY, int toX, int toY,
+                                             KhetPiece piece, boolean canSwitch) {
+        if (Math.abs(toX - fromX) > 1 || Math.abs(toY - fromY) > 1) {
+            return KhetMoveResult.NOT_NEIGHBORING;
         }
 
-        if (isOutsideBoard(to)) {
-            throw new InvalidMoveException("Can't move a piece outside of the board");
+        if (isOutsideBoard(toX, toY)) {
+            return KhetMoveResult.TO_OUTSIDE_BOARD;
         }
 
-        if (this.boardLayout[to.x][to.y].equals(opponentId + "")) {
-            throw new InvalidMoveException("Your piece can't move to this square");
+        if (isForbiddenSquare(toX, toY, piece.getPlayerId())) {
+            return KhetMoveResult.FORBIDDEN_SQUARE;
         }
 
-        KhetPiece occupying = this.fields[to.x][to.y];
+        KhetPiece occupying = this.fields[toX][toY];
         if (!canSwitch) {
             if (occupying != null) {
-                throw new InvalidMoveException("This piece can't move to an occupied square");
+                return KhetMoveResult.OCCUPIED_SQUARE;
             }
         } else {
             if (occupying != null &&
                     occupying.getType() != KhetPieceType.PYRAMID &&
                     occupying.getType() != KhetPieceType.ANUBIS) {
-                throw new InvalidMoveException("You can't switch places with this piece");
+                return KhetMoveResult.CANT_SWITCH;
             }
         }
+
+        return KhetMoveResult.VALID;
     }
 
-    private void processTurnMove(KhetTurnMove move, KhetPiece piece) {
-        try {
-            KhetPieceOrientation orientation = getNewOrientation(move, piece);
-            piece.setOrientation(orientation);
-        } catch (InvalidMoveException ex) {
-            move.setException(ex);
+    private KhetMoveResult validateTurnMove(int x, int y, KhetPiece piece, TurnType turnType) {
+        if (piece.getType() == KhetPieceType.SPHINX &&
+                !canTurnSphinx(x, y, piece.getOrientation().turn(turnType))) {
+            return KhetMoveResult.SPHINX_NOT_FACING_BOARD;
         }
+
+        return KhetMoveResult.VALID;
     }
 
-    private KhetPieceOrientation getNewOrientation(KhetTurnMove move, KhetPiece piece) throws InvalidMoveException {
-        KhetPieceOrientation orientation = piece.getOrientation().turn(move.getTurnType());
+    /**
+     * Follows the laser from the sphinx until it leaves the board, is absorbed
+     * or destroys a piece. Visited squares are written to the laser buffer.
+     * The path of the previous shot from this square is reused up to the
+     * first square that changed since, only the rest is traced again.
+     * @param square Square of the sphinx
+     * @param direction Direction the sphinx is facing
+     * @param offset Position in the laser buffer to start writing
+     * @return Position in the laser buffer after the last written square
+     */
+    private int traceLaser(int square, int direction, int offset) {
+        KhetLaserTrace trace = getLaserTrace(square);
+        int length = trace.truncateToUnchanged();
 
-        if (piece.getType() != KhetPieceType.SPHINX) {
-            return orientation;
+        if (length == 0) {
+            trace.add(square, direction);
+            length = 1;
         }
 
-        Point from = move.getFromCoordinate();
-        Point direction = orientation.getDirection();
-        Point pieceFront = new Point(from.x + direction.x, from.y + direction.y);
+        ensureLaserCapacity(offset + length);
+        System.arraycopy(trace.getSquares(), 0, this.laserSquares, offset, length);
+        offset += length;
+
+        direction = trace.getLastDirection();
+        if (direction == KhetLaserTrace.STOPPED) return offset;
+
+        int current = trace.getLastSquare();
+
+        while (true) {
+            int stride = KhetLaser.DIRECTION_X[direction] + KhetLaser.DIRECTION_Y[direction] * this.width;
+            int hit = findNextPiece(current, direction);
+            int last = hit >= 0 ? hit : getEdgeSquare(current, direction);
+            int count = (last - current) / stride;
+
+            // the squares up to the piece or the edge are empty
+            ensureLaserCapacity(offset + count);
+            for (int i = 1; i < count; i++) {
+                current += stride;
+                this.laserSquares[offset++] = current;
+                trace.add(current, direction);
+            }
+            if (count == 0) return offset;
+
+            current = last;
+            this.laserSquares[offset++] = current;
+
+            if (hit < 0) {
+                trace.add(current, direction);
+                return offset;
+            }
+
+            int x = current % this.width;
+            int y = current / this.width;
+            KhetPiece piece = this.fields[x][y];
+            int outcome = KhetLaser.getOutcome(piece.getType(), piece.getOrientation(), direction);
+
+            if (outcome == KhetLaser.DESTROY || outcome == KhetLaser.ABSORB) {
+                trace.add(current, KhetLaserTrace.STOPPED);
+            }
+            if (outcome == KhetLaser.DESTROY) {
+                this.destroyedSquare = current;
+                this.destroyedPiece = removePiece(x, y);
+
+                if (this.destroyedCount == this.shotDestroyed.length) {
+                    this.shotDestroyed = Arrays.copyOf(this.shotDestroyed, this.destroyedCount * 2);
+                }
+                this.shotDestroyed[this.destroyedCount++] = KhetUndo.encode(0, current, this.destroyedPiece);
+                return offset;
+            }
+            if (outcome == KhetLaser.ABSORB) return offset;
 
-        if (isOutsideBoard(pieceFront)) {
-            throw new InvalidMoveException("The Sphinx can only be turned to face the board");
+            direction = outcome;
+            trace.add(current, direction);
         }
+    }
 
-        return orientation;
+    /**
+     * Finds the first piece seen from a square, using the row and column
+     * occupancy, so empty squares are skipped in a single bit scan
+     * @param square Square to look from, not included
+     * @param direction Direction to look in, see KhetLaser
+     * @return Square of the piece, or -1 if there is none before the edge of the board
+     */
+    public int findNextPiece(int square, int direction) {
+        int x = square % this.width;
+        int y = square / this.width;
+        int hit;
+
+        switch (direction) {
+            case KhetLaser.NORTH:
+                hit = KhetBitboard.previousSetBit(this.columnMasks, x * this.columnWords, y - 1);
+                return hit < 0 ? -1 : hit * this.width + x;
+            case KhetLaser.EAST:
+                hit = KhetBitboard.nextSetBit(this.rowMasks, y * this.rowWords, this.rowWords, x + 1);
+                return hit < 0 ? -1 : y * this.width + hit;
+            case KhetLaser.SOUTH:
+                hit = KhetBitboard.nextSetBit(this.columnMasks, x * this.columnWords, this.columnWords, y + 1);
+                return hit < 0 ? -1 : hit * this.width + x;
+            case KhetLaser.WEST:
+                hit = KhetBitboard.previousSetBit(this.rowMasks, y * this.rowWords, x - 1);
+                return hit < 0 ? -1 : y * this.width + hit;
+            default:
+                throw new IllegalArgumentException(String.format("Unknown direction %d", direction));
+        }
     }
 
-    private void progressLaser(Point current, Point direction, ArrayList<Point> path) {
-        Point next = new Point(current.x + direction.x, current.y + direction.y);
+    /**
+     * @return Last square on the board from given square in given direction
+     */
+    private int getEdgeSquare(int square, int direction) {
+        int x = square % this.width;
+        int y = square / this.width;
+
+        switch (direction) {
+            case KhetLaser.NORTH:
+                return x;
+            case KhetLaser.EAST:
+                return y * this.width + this.width - 1;
+            case KhetLaser.SOUTH:
+                return (this.height - 1) * this.width + x;
+            default:
+                return y * this.width;
+        }
+    }
 
-        if (isOutsideBoard(next)) return;
+    /**
+     * Follows the laser of given player without changing the board, jumping
+     * from piece to piece
+     * @param playerId Player whose laser would fire
+     * @return Square of the first piece the laser would destroy, or -1 if there is none
+     */
+    public int getLaserTarget(int playerId) {
+        for (int i = 0; i < this.sphinxCounts[playerId]; i++) {
+            int square = this.sphinxSquares[playerId][i];
+            int direction = this.fields[square % this.width][square / this.width].getOrientation().ordinal();
 
-        KhetPiece piece = this.fields[next.x][next.y];
+            while (true) {
+                square = findNextPiece(square, direction);
+                if (square < 0) break;
 
-        if (piece == null) {
-            path.add(next);
-            progressLaser(next, direction, path);
-            return;
+                KhetPiece piece = this.fields[square % this.width][square / this.width];
+                direction = KhetLaser.getOutcome(piece.getType(), piece.getOrientation(), direction);
+
+                if (direction == KhetLaser.DESTROY) return square;
+                if (direction == KhetLaser.ABSORB) break;
+            }
         }
 
-        path.add(next);
-        hitPiece(piece, next, direction, path);
+        return -1;
     }
 
-    private void hitPiece(KhetPiece piece, Point next, Point direction, ArrayList<Point> path) {
-        switch (piece.getType()) {
-            case PHARAOH:
-                this.fields[next.x][next.y] = null;
-                break;
-            case ANUBIS:
-                Point opposite = getOppositeDirection(direction);
-                if (!opposite.equals(piece.getOrientation().getDirection())) {
-                    this.fields[next.x][next.y] = null;
-                }
-                break;
-            case PYRAMID:
-                hitPyramid(piece, next, direction, path);
-                break;
-            case SCARAB:
-                hitScarab(piece, next, direction, path);
-                break;
+    private KhetLaserTrace getLaserTrace(int sphinxSquare) {
+        for (int i = 0; i < this.laserTraceCount; i++) {
+            if (this.laserTraces[i].getSphinxSquare() == sphinxSquare) {
+                return this.laserTraces[i];
+            }
+        }
+
+        if (this.laserTraces == null) {
+            this.laserTraces = new KhetLaserTrace[2];
+        } else if (this.laserTraceCount == this.laserTraces.length) {
+            this.laserTraces = Arrays.copyOf(this.laserTraces, this.laserTraceCount * 2);
+        }
+
+        KhetLaserTrace trace = new KhetLaserTrace(sphinxSquare, this.width * this.height);
+        this.laserTraces[this.laserTraceCount++] = trace;
+
+        return trace;
+    }
+
+    private void ensureLaserCapacity(int size) {
+        if (size > this.laserSquares.length) {
+            this.laserSquares = Arrays.copyOf(this.laserSquares, Math.max(size, this.laserSquares.length * 2));
         }
     }
 
-    private void hitPyramid(KhetPiece piece, Point next, Point direction, ArrayList<Point> path) {
-        Point opposite = getOppositeDirection(direction);
-        Point side = piece.getOrientation().turn(TurnType.COUNTERCLOCKWISE).getDirection();
-        Point reflectedDirection;
+    /**
+     * Puts a piece on an empty square and adds it to the bitboards
+     * @param x X coordinate
+     * @param y Y coordinate
+     * @param piece Piece to place, does nothing if null
+     */
+    private void placePiece(int x, int y, KhetPiece piece) {
+        if (piece == null) return;
 
-        // hits head
-        if (opposite.equals(piece.getOrientation().getDirection())) {
-            reflectedDirection = reflectDirection(direction, TurnType.CLOCKWISE);
-            progressLaser(next, reflectedDirection, path);
+        if (piece.getPlayerId() < 0 || piece.getPlayerId() >= this.playerCount) {
+            throw new RuntimeException(
+                    String.format("Piece '%s' doesn't belong to any player", piece));
+        }
 
-        // hits reflecting side
-        } else if (direction.equals(side)) {
-            reflectedDirection = reflectDirection(direction, TurnType.COUNTERCLOCKWISE);
-            progressLaser(next, reflectedDirection, path);
+        int square = y * this.width + x;
+        this.fields[x][y] = piece;
+        KhetBitboard.set(this.occupiedMask, square);
+        this.rowMasks[y * this.rowWords + (x >>> 6)] |= 1L << x;
+        this.columnMasks[x * this.columnWords + (y >>> 6)] |= 1L << y;
+        KhetBitboard.set(this.playerMasks[piece.getPlayerId()], square);
+        KhetBitboard.set(this.typeMasks[piece.getType().ordinal()], square);
+        KhetBitboard.set(this.orientationMasks[piece.getOrientation().ordinal()], square);
+        this.zobristHash ^= KhetZobrist.getPieceKey(square, piece);
+        addToPieceList(piece, square);
+        reportLaserChange(square);
+        this.pieceCounts[piece.getPlayerId()]++;
+        if (piece.getType() == KhetPieceType.PHARAOH && this.pharaohCounts[piece.getPlayerId()]++ == 0) {
+            this.noPharaohPlayerCount--;
+        }
+        writeCell(x, y);
+    }
 
-        // hits back or non-reflecting side
-        } else {
-            this.fields[next.x][next.y] = null;
+    /**
+     * Takes the piece off a square and removes it from the bitboards
+     * @param x X coordinate
+     * @param y Y coordinate
+     * @return The removed piece, or null if the square was empty
+     */
+    private KhetPiece removePiece(int x, int y) {
+        KhetPiece piece = this.fields[x][y];
+        if (piece == null) return null;
+
+        int square = y * this.width + x;
+        this.fields[x][y] = null;
+        KhetBitboard.clear(this.occupiedMask, square);
+        this.rowMasks[y * this.rowWords + (x >>> 6)] &= ~(1L << x);
+        this.columnMasks[x * this.columnWords + (y >>> 6)] &= ~(1L << y);
+        KhetBitboard.clear(this.playerMasks[piece.getPlayerId()], square);
+        KhetBitboard.clear(this.typeMasks[piece.getType().ordinal()], square);
+        KhetBitboard.clear(this.orientationMasks[piece.getOrientation().ordinal()], square);
+        this.zobristHash ^= KhetZobrist.getPieceKey(square, piece);
+        this.pieceCounts[piece.getPlayerId()]--;
+        removeFromPieceList(piece, square);
+        reportLaserChange(square);
+        if (piece.getType() == KhetPieceType.PHARAOH && --this.pharaohCounts[piece.getPlayerId()] == 0) {
+            this.noPharaohPlayerCount++;
         }
+        writeCell(x, y);
+
+        return piece;
     }
 
-    private void hitScarab(KhetPiece piece, Point next, Point direction, ArrayList<Point> path) {
-        Point opposite = getOppositeDirection(direction);
-        Point reflectedDirection;
+    private void reportLaserChange(int square) {
+        for (int i = 0; i < this.laserTraceCount; i++) {
+            this.laserTraces[i].onSquareChanged(square);
+        }
+    }
 
-        // hits head or back
-        if (opposite.equals(piece.getOrientation().getDirection()) ||
-                direction.equals(piece.getOrientation().getDirection())) {
-            reflectedDirection = reflectDirection(direction, TurnType.CLOCKWISE);
+    /**
+     * Appends the square to the piece list of the owner, called before the piece count is increased
+     */
+    private void addToPieceList(KhetPiece piece, int square) {
+        int playerId = piece.getPlayerId();
+        int count = this.pieceCounts[playerId];
 
-        // hits a side
-        } else {
-            reflectedDirection = reflectDirection(direction, TurnType.COUNTERCLOCKWISE);
+        if (count == this.pieceSquares[playerId].length) {
+            this.pieceSquares[playerId] = Arrays.copyOf(this.pieceSquares[playerId], count * 2);
         }
+        this.pieceSquares[playerId][count] = square;
+        this.pieceListIndex[square] = count;
 
-        progressLaser(next, reflectedDirection, path);
+        if (piece.getType() != KhetPieceType.SPHINX) return;
+
+        int[] sphinxes = this.sphinxSquares[playerId];
+        int sphinxCount = this.sphinxCounts[playerId]++;
+        if (sphinxCount == sphinxes.length) {
+            sphinxes = this.sphinxSquares[playerId] = Arrays.copyOf(sphinxes, sphinxCount * 2);
+        }
+
+        int i = sphinxCount;
+        for (; i > 0 && sphinxes[i - 1] > square; i--) {
+            sphinxes[i] = sphinxes[i - 1];
+        }
+        sphinxes[i] = square;
     }
 
-    private Point getOppositeDirection(Point direction) {
-        return new Point(direction.x * -1, direction.y * -1);
+    /**
+     * Moves the last entry of the piece list into the place of the removed square,
+     * called after the piece count is decreased
+     */
+    private void removeFromPieceList(KhetPiece piece, int square) {
+        int playerId = piece.getPlayerId();
+        int last = this.pieceSquares[playerId][this.pieceCounts[playerId]];
+        int index = this.pieceListIndex[square];
+
+        this.pieceSquares[playerId][index] = last;
+        this.pieceListIndex[last] = index;
+
+        if (piece.getType() != KhetPieceType.SPHINX) return;
+
+        int[] sphinxes = this.sphinxSquares[playerId];
+        int sphinxCount = --this.sphinxCounts[playerId];
+        int i = 0;
+        while (sphinxes[i] != square) i++;
+        System.arraycopy(sphinxes, i + 1, sphinxes, i, sphinxCount - i);
     }
 
-    private Point reflectDirection(Point direction, TurnType turnType) {
-        Point reflected = new Point(direction.y, direction.x);
+    /**
+     * Updates the textual form of the piece of a single cell and invalidates the cached string
+     * @param x X coordinate
+     * @param y Y coordinate
+     */
+    private void writeCell(int x, int y) {
+        int offset = (y * this.width + x) * CELL_LENGTH;
+        KhetPiece piece = this.fields[x][y];
 
-        if (turnType == TurnType.CLOCKWISE) {
-            reflected.y *= -1;
+        if (piece == null) {
+            Arrays.fill(this.cellChars, offset + 1, offset + CELL_LENGTH, ' ');
         } else {
-            reflected.x *= -1;
+            String type = piece.getType().toString();
+            this.cellChars[offset + 1] = type.charAt(0);
+            this.cellChars[offset + 2] = type.charAt(1);
+            this.cellChars[offset + 3] = Character.forDigit(piece.getPlayerId(), 10);
+            this.cellChars[offset + 4] = piece.getOrientation().toString().charAt(0);
+        }
+
+        this.cachedString = null;
+    }
+
+    private void clearMasks() {
+        this.zobristHash = 0;
+        Arrays.fill(this.pieceCounts, 0);
+        Arrays.fill(this.pharaohCounts, 0);
+        this.noPharaohPlayerCount = this.playerCount;
+        Arrays.fill(this.sphinxCounts, 0);
+        KhetBitboard.clearAll(this.occupiedMask);
+        KhetBitboard.clearAll(this.rowMasks);
+        KhetBitboard.clearAll(this.columnMasks);
+        for (long[] mask : this.playerMasks) {
+            KhetBitboard.clearAll(mask);
         }
+        for (long[] mask : this.typeMasks) {
+            KhetBitboard.clearAll(mask);
+        }
+        for (long[] mask : this.orientationMasks) {
+            KhetBitboard.clearAll(mask);
+        }
+    }
+
+    /**
+     * @return True if the square has the colour of the opponent of given player
+     */
+    boolean isForbiddenSquare(int x, int y, int playerId) {
+        return this.layout.isForbidden(y * this.width + x, playerId);
+    }
+
+    /**
+     * @return True if a sphinx on given square faces the board with given orientation
+     */
+    boolean canTurnSphinx(int x, int y, KhetPieceOrientation orientation) {
+        int frontX = x + KhetLaser.DIRECTION_X[orientation.ordinal()];
+        int frontY = y + KhetLaser.DIRECTION_Y[orientation.ordinal()];
 
-        return reflected;
+        return frontX >= 0 && frontY >= 0 && frontX < this.width && frontY < this.height;
     }
 
-    private boolean isOutsideBoard(Point point) {
-        return point.x < 0 || point.y < 0 || point.x >= this.width || point.y >= this.height;
+    private boolean isOutsideBoard(int x, int y) {
+        return x < 0 || y < 0 || x >= this.width || y >= this.height;
     }
 
-    private int getPlayerCount() {
+    public int getPlayerCount() {
         return this.playerCount;
     }
 
-    public ArrayList<ArrayList<Point>> getLaserPaths() {
+    public KhetBoardLayout getLayout() {
+        return this.layout;
+    }
+
+    public ArrayList<ArrayList<KhetCoordinate>> getLaserPaths() {
+        if (this.laserPaths == null) {
+            this.laserPaths = new ArrayList<>();
+
+            for (int path = 0; path < this.laserPathCount; path++) {
+                ArrayList<KhetCoordinate> laserPath = new ArrayList<>();
+
+                for (int i = this.laserPathStarts[path]; i < this.laserPathStarts[path + 1]; i++) {
+                    int square = this.laserSquares[i];
+                    laserPath.add(KhetCoordinate.ofSquare(square, this.width));
+                }
+
+                this.laserPaths.add(laserPath);
+            }
+        }
+
         return this.laserPaths;
     }
 
+    public int getLaserPathCount() {
+        return this.laserPathCount;
+    }
+
+    public int getLaserPathLength(int path) {
+        return this.laserPathStarts[path + 1] - this.laserPathStarts[path];
+    }
+
+    /**
+     * @param path Index of the laser path in the last shot
+     * @param index Index of the square on the path, the sphinx is index 0
+     * @return Square index (y * width + x)
+     */
+    public int getLaserPathSquare(int path, int index) {
+        return this.laserSquares[this.laserPathStarts[path] + index];
+    }
+
+    public KhetPiece getPieceAt(int x, int y) {
+        return this.fields[x][y];
+    }
+
+    public KhetPiece getPieceAt(KhetCoordinate coordinate) {
+        return this.fields[coordinate.getX()][coordinate.getY()];
+    }
+
+    /**
+     * Position key of the pieces on the board, kept up to date on every change
+     * @return 64-bit Zobrist hash
+     */
+    public long getZobristHash() {
+        return this.zobristHash;
+    }
+
+    /**
+     * Position key including the player to move
+     * @param playerToMove Id of the player whose turn it is
+     * @return 64-bit Zobrist hash
+     */
+    public long getZobristHash(int playerToMove) {
+        return this.zobristHash ^ KhetZobrist.getSideToMoveKey(playerToMove);
+    }
+
+    // The bitboards below are live views of the board, they must not be modified
+    public long[] getOccupiedMask() {
+        return this.occupiedMask;
+    }
+
+    public long[] getPlayerMask(int playerId) {
+        return this.playerMasks[playerId];
+    }
+
+    public long[] getTypeMask(KhetPieceType type) {
+        return this.typeMasks[type.ordinal()];
+    }
+
+    public long[] getOrientationMask(KhetPieceOrientation orientation) {
+        return this.orientationMasks[orientation.ordinal()];
+    }
+
     @Override
     public KhetPiece fieldFromString(String field) {
         return KhetPiece.fromString(field);
@@ -0,0 +1,115 @@
+/*
+ *  Copyright 2017 riddles.io (developers@riddles.io)
+ *
+ *      Licensed under the Apache License, Version 2.0 (the "License");
+ *      you may not use this file except in compliance with the License.
+ *      You may obtain a copy of the License at
+ *
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *      Unless required by applicable law or agreed to in writing, software
+ *      distributed under the License is distributed on an "AS IS" BASIS,
+ *      WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *      See the License for the specific language governing permissions and
+ *      limitations under the License.
+ *
+ *      For the full copyright and license information, please view the LICENSE
+ *      file that was distributed with this source code.
+ */
+
+package io.riddles.khet.game.board;
+
+import java.util.Arrays;
+
+/**
+ * io.riddles.khet.game.board.KhetBoardLayout - Created on 18-10-26
+ *
+ * What the board looks like without pieces: the layout character of every
+ * square, '0' or '1' for squares coloured for a player and '.' for the rest.
+ * Layouts never change, so all boards of a match share one. A square is
+ * forbidden for a player if it has the colour of the opponent, these squares
+ * are precomputed as a bitboard per player.
+ *
+ * @author Jim van Eeden - jim@riddles.io
+ */
+public final class KhetBoardLayout {
+
+    private static volatile KhetBoardLayout lastLayout;  // reused while boards of the same match are parsed
+
+    private final int width;
+    private final int height;
+    private final int playerCount;
+    private final char[] squares;  // layout character per square, index is y * width + x
+    private final long[][] forbiddenMasks;
+
+    private KhetBoardLayout(int width, int height, int playerCount, char[] squares) {
+        this.width = width;
+        this.height = height;
+        this.playerCount = playerCount;
+        this.squares = squares;
+        this.forbiddenMasks = new long[playerCount][];
+
+        for (int playerId = 0; playerId < playerCount; playerId++) {
+            this.forbiddenMasks[playerId] = KhetBitboard.create(squares.length);
+
+            int opponentId = 2 - (playerId + 1);
+            if (opponentId < 0) continue;
+
+            char opponentColour = Character.forDigit(opponentId, 10);
+            for (int square = 0; square < squares.length; square++) {
+                if (squares[square] == opponentColour) {
+                    KhetBitboard.set(this.forbiddenMasks[playerId], square);
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the layout with given squares, the last created layout is
+     * returned again if it's the same
+     * @param width Width of the board
+     * @param height Height of the board
+     * @param playerCount Amount of players
+     * @param squares Layout character per square, not changed or kept
+     * @return The layout
+     */
+    static KhetBoardLayout of(int width, int height, int playerCount, char[] squares) {
+        KhetBoardLayout layout = lastLayout;
+
+        if (layout == null || layout.width != width || layout.height != height
+                || layout.playerCount != playerCount || !Arrays.equals(layout.squares, squares)) {
+            layout = new KhetBoardLayout(width, height, playerCount, squares.clone());
+            lastLayout = layout;
+        }
+
+        return layout;
+    }
+
+    public char getLayoutChar(int square) {
+        return this.squares[square];
+    }
+
+    /**
+     * @return True if the square has the colour of the opponent of given player
+     */
+    public boolean isForbidden(int square, int playerId) {
+        return KhetBitboard.get(this.forbiddenMasks[playerId], square);
+    }
+
+    /**
+     * Squares given player can't move to. This is a shared view, it must not be modified.
+     * @param playerId Id of the player
+     * @return Bitboard of the forbidden squares
+     */
+    public long[] getForbiddenMask(int playerId) {
+        return this.forbiddenMasks[playerId];
+    }
+
+    public int getWidth() {
+        return this.width;
+    }
+
+    public int getHeight() {
+        return this.height;
+    }
+}
@@ -0,0 +1,101 @@
+/*
+ *  Copyright 2017 riddles.io (developers@riddles.io)
+ *
+ *      Licensed under the Apache License, Version 2.0 (the "License");
+ *      you may not use this file except in compliance with the License.
+ *      You may obtain a copy of the License at
+ *
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *      Unless required by applicable law or agreed to in writing, software
+ *      distributed under the License is distributed on an "AS IS" BASIS,
+ *      WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *      See the License for the specific language governing permissions and
+ *      limitations under the License.
+ *
+ *      For the full copyright and license information, please view the LICENSE
+ *      file that was distributed with this source code.
+ */
+
+package io.riddles.khet.game.board;
+
+/**
+ * io.riddles.khet.game.board.KhetCoordinate - Created on 18-10-26
+ *
+ * Immutable x, y pair used for squares, moves and laser paths. Coordinates
+ * that fit on the biggest board are cached, so of() normally returns the
+ * same instance for the same square. Compare them with equals, coordinates
+ * created by different threads at the same time can still be different
+ * instances.
+ *
+ * @author Jim van Eeden - jim@riddles.io
+ */
+public final class KhetCoordinate {
+
+    private static final int CACHE_SIZE = 256;  // boards are at most 255 squares in each direction
+    private static final KhetCoordinate[][] CACHE = new KhetCoordinate[CACHE_SIZE][];  // rows are created when used
+
+    private final int x;
+    private final int y;
+
+    private KhetCoordinate(int x, int y) {
+        this.x = x;
+        this.y = y;
+    }
+
+    public static KhetCoordinate of(int x, int y) {
+        if (x < 0 || y < 0 || x >= CACHE_SIZE || y >= CACHE_SIZE) {
+            return new KhetCoordinate(x, y);
+        }
+
+        KhetCoordinate[] row = CACHE[y];
+        if (row == null) {
+            row = new KhetCoordinate[CACHE_SIZE];
+            CACHE[y] = row;
+        }
+
+        KhetCoordinate coordinate = row[x];
+        if (coordinate == null) {
+            coordinate = new KhetCoordinate(x, y);
+            row[x] = coordinate;
+        }
+
+        return coordinate;
+    }
+
+    /**
+     * @param square Square index (y * width + x)
+     * @param width Width of the board
+     * @return Coordinate of the square
+     */
+    public static KhetCoordinate ofSquare(int square, int width) {
+        return of(square % width, square / width);
+    }
+
+    public int getX() {
+        return this.x;
+    }
+
+    public int getY() {
+        return this.y;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if (this == other) return true;
+        if (!(other instanceof KhetCoordinate)) return false;
+
+        KhetCoordinate coordinate = (KhetCoordinate) other;
+        return this.x == coordinate.x && this.y == coordinate.y;
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * this.x + this.y;
+    }
+
+    @Override
+    public String toString() {
+        return this.x + "," + this.y;
+    }
+}
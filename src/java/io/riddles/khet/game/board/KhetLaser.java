@@ -0,0 +1,110 @@
+/*
+ *  Copyright 2017 riddles.io (developers@riddles.io)
+ *
+ *      Licensed under the Apache License, Version 2.0 (the "License");
+ *      you may not use this file except in compliance with the License.
+ *      You may obtain a copy of the License at
+ *
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *      Unless required by applicable law or agreed to in writing, software
+ *      distributed under the License is distributed on an "AS IS" BASIS,
+ *      WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *      See the License for the specific language governing permissions and
+ *      limitations under the License.
+ *
+ *      For the full copyright and license information, please view the LICENSE
+ *      file that was distributed with this source code.
+ */
+
+package io.riddles.khet.game.board;
+
+import io.riddles.khet.game.board.piece.KhetPieceOrientation;
+import io.riddles.khet.game.board.piece.KhetPieceType;
+
+/**
+ * io.riddles.khet.game.board.KhetLaser - Created on 18-10-26
+ *
+ * Precomputed laser rules. Directions are the ordinals of KhetPieceOrientation
+ * (north, east, south, west). For every piece type, piece orientation and
+ * incoming laser direction the outcome table holds the direction the laser
+ * is reflected to, or ABSORB or DESTROY.
+ *
+ * @author Jim van Eeden - jim@riddles.io
+ */
+public final class KhetLaser {
+
+    public static final int ABSORB = 4;
+    public static final int DESTROY = 5;
+
+    public static final int NORTH = 0;
+    public static final int EAST = 1;
+    public static final int SOUTH = 2;
+    public static final int WEST = 3;
+
+    static final int[] DIRECTION_X = {0, 1, 0, -1};
+    static final int[] DIRECTION_Y = {-1, 0, 1, 0};
+
+    private static final int DIRECTIONS = 4;
+    private static final byte[] OUTCOMES;
+
+    static {
+        int typeCount = KhetPieceType.values().length;
+        OUTCOMES = new byte[typeCount * DIRECTIONS * DIRECTIONS];
+
+        for (KhetPieceType type : KhetPieceType.values()) {
+            for (int orientation = 0; orientation < DIRECTIONS; orientation++) {
+                for (int direction = 0; direction < DIRECTIONS; direction++) {
+                    OUTCOMES[index(type.ordinal(), orientation, direction)] =
+                            (byte) computeOutcome(type, orientation, direction);
+                }
+            }
+        }
+    }
+
+    private KhetLaser() {}
+
+    /**
+     * Looks up what happens when the laser hits a piece
+     * @param type Type of the piece that is hit
+     * @param orientation Orientation of the piece that is hit
+     * @param direction Direction the laser is travelling in
+     * @return New direction of the laser, ABSORB or DESTROY
+     */
+    public static int getOutcome(KhetPieceType type, KhetPieceOrientation orientation, int direction) {
+        return OUTCOMES[index(type.ordinal(), orientation.ordinal(), direction)];
+    }
+
+    private static int index(int type, int orientation, int direction) {
+        return (type * DIRECTIONS + orientation) * DIRECTIONS + direction;
+    }
+
+    private static int computeOutcome(KhetPieceType type, int orientation, int direction) {
+        int opposite = (direction + 2) % DIRECTIONS;
+        int reflectClockwise = (direction + 3) % DIRECTIONS;
+        int reflectCounterClockwise = (direction + 1) % DIRECTIONS;
+
+        switch (type) {
+            case PHARAOH:
+                return DESTROY;
+            case ANUBIS:
+                return opposite == orientation ? ABSORB : DESTROY;
+            case PYRAMID:
+                if (opposite == orientation) {  // hits head
+                    return reflectClockwise;
+                }
+                if (direction == (orientation + 3) % DIRECTIONS) {  // hits reflecting side
+                    return reflectCounterClockwise;
+                }
+                return DESTROY;  // hits back or non-reflecting side
+            case SCARAB:
+                if (opposite == orientation || direction == orientation) {  // hits head or back
+                    return reflectClockwise;
+                }
+                return reflectCounterClockwise;  // hits a side
+            case SPHINX:
+            default:
+                return ABSORB;
+        }
+    }
+}
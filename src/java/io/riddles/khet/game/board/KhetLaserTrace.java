@@ -0,0 +1,133 @@
+/*
+ *  Copyright 2017 riddles.io (developers@riddles.io)
+ *
+ *      Licensed under the Apache License, Version 2.0 (the "License");
+ *      you may not use this file except in compliance with the License.
+ *      You may obtain a copy of the License at
+ *
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *      Unless required by applicable law or agreed to in writing, software
+ *      distributed under the License is distributed on an "AS IS" BASIS,
+ *      WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *      See the License for the specific language governing permissions and
+ *      limitations under the License.
+ *
+ *      For the full copyright and license information, please view the LICENSE
+ *      file that was distributed with this source code.
+ */
+
+package io.riddles.khet.game.board;
+
+import java.util.Arrays;
+
+/**
+ * io.riddles.khet.game.board.KhetLaserTrace - Created on 18-10-26
+ *
+ * The last path traced from one sphinx square, with the direction the laser
+ * left every square in. The board reports every square that changes after
+ * the trace. The path up to the first changed square is still what a new
+ * trace would give, because the laser only depends on the pieces it has
+ * passed so far. Only the rest has to be traced again.
+ *
+ * @author Jim van Eeden - jim@riddles.io
+ */
+final class KhetLaserTrace {
+
+    static final byte STOPPED = -1;  // direction after a piece that absorbed or was destroyed
+
+    private static final int MAX_CHANGES = 16;
+
+    private final int sphinxSquare;
+    private int[] squares;
+    private byte[] directions;
+    private int length;
+    private long[] pathMask;  // all squares on the path, might contain squares of earlier paths
+    private int[] changes;  // changed squares on the path since it was traced
+    private int changeCount;  // more than MAX_CHANGES if too many changes were reported
+
+    KhetLaserTrace(int sphinxSquare, int squareCount) {
+        this.sphinxSquare = sphinxSquare;
+        this.squares = new int[16];
+        this.directions = new byte[16];
+        this.pathMask = KhetBitboard.create(squareCount);
+        this.changes = new int[MAX_CHANGES];
+    }
+
+    /**
+     * Called by the board whenever a piece is placed on or removed from a square
+     * @param square Square index
+     */
+    void onSquareChanged(int square) {
+        if (!KhetBitboard.get(this.pathMask, square)) return;
+
+        if (this.changeCount < MAX_CHANGES) {
+            this.changes[this.changeCount] = square;
+        }
+        this.changeCount++;
+    }
+
+    /**
+     * Cuts the path off before the first square that changed since it was traced
+     * and forgets the changes, so the rest of the path can be traced again
+     * @return Amount of squares kept, 0 if the path has to be traced from the sphinx
+     */
+    int truncateToUnchanged() {
+        if (this.changeCount > MAX_CHANGES) {
+            this.length = 0;
+        }
+
+        for (int i = 0; i < this.changeCount && this.length > 0; i++) {
+            int index = indexOf(this.changes[i]);
+            if (index >= 0) {
+                this.length = index;
+            }
+        }
+
+        if (this.length == 0) {
+            KhetBitboard.clearAll(this.pathMask);
+        }
+        this.changeCount = 0;
+
+        return this.length;
+    }
+
+    void add(int square, int direction) {
+        if (this.length == this.squares.length) {
+            this.squares = Arrays.copyOf(this.squares, this.length * 2);
+            this.directions = Arrays.copyOf(this.directions, this.length * 2);
+        }
+
+        this.squares[this.length] = square;
+        this.directions[this.length] = (byte) direction;
+        this.length++;
+        KhetBitboard.set(this.pathMask, square);
+    }
+
+    int getSphinxSquare() {
+        return this.sphinxSquare;
+    }
+
+    int[] getSquares() {
+        return this.squares;
+    }
+
+    int getLastSquare() {
+        return this.squares[this.length - 1];
+    }
+
+    /**
+     * @return Direction the laser left the last square in, or STOPPED
+     */
+    int getLastDirection() {
+        return this.directions[this.length - 1];
+    }
+
+    private int indexOf(int square) {
+        for (int i = 0; i < this.length; i++) {
+            if (this.squares[i] == square) return i;
+        }
+
+        return -1;
+    }
+}
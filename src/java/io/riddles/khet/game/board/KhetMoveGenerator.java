@@ -0,0 +1,211 @@
+/*
+ *  Copyright 2017 riddles.io (developers@riddles.io)
+ *
+ *      Licensed under the Apache License, Version 2.0 (the "License");
+ *      you may not use this file except in compliance with the License.
+ *      You may obtain a copy of the License at
+ *
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *      Unless required by applicable law or agreed to in writing, software
+ *      distributed under the License is distributed on an "AS IS" BASIS,
+ *      WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *      See the License for the specific language governing permissions and
+ *      limitations under the License.
+ *
+ *      For the full copyright and license information, please view the LICENSE
+ *      file that was distributed with this source code.
+ */
+
+package io.riddles.khet.game.board;
+
+
+import io.riddles.khet.game.board.piece.KhetPiece;
+import io.riddles.khet.game.board.piece.KhetPieceType;
+import io.riddles.khet.game.move.KhetMove;
+import io.riddles.khet.game.move.KhetMoveMove;
+import io.riddles.khet.game.move.KhetTurnMove;
+import io.riddles.khet.game.move.TurnType;
+
+/**
+ * io.riddles.khet.game.board.KhetMoveGenerator - Created on 18-10-26
+ *
+ * Lists the legal moves of a player, using the same rules as
+ * KhetBoard.validateMove. Moves are encoded as ints so they can be
+ * written to a caller supplied buffer without creating objects:
+ * bits 0-15 hold the from square and bits 16-31 the to square. Turns have
+ * no to square, they store a turn value above the last square instead.
+ * Boards of up to MAX_SQUARE_COUNT squares, e.g. 255x255, are supported.
+ *
+ * @author Jim van Eeden - jim@riddles.io
+ */
+public final class KhetMoveGenerator {
+
+    public static final int MAX_MOVES_PER_PIECE = 10;  // 8 neighbours and 2 turns
+    public static final int MAX_SQUARE_COUNT = (1 << 16) - 2;  // the two highest square values are turns
+
+    private static final int TO_SHIFT = 16;
+    private static final int SQUARE_MASK = (1 << TO_SHIFT) - 1;
+
+    // to square values of turns
+    private static final int TURN_CLOCKWISE = SQUARE_MASK;
+    private static final int TURN_COUNTERCLOCKWISE = SQUARE_MASK - 1;
+
+    private KhetMoveGenerator() {}
+
+    /**
+     * Writes all legal moves of a player to the buffer, starting at index 0
+     * @param board Board to generate moves for
+     * @param playerId Player to move
+     * @param moves Buffer, must hold MAX_MOVES_PER_PIECE for every piece of the player
+     * @return Amount of moves written
+     */
+    public static int generateMoves(KhetBoard board, int playerId, int[] moves) {
+        return generateMoves(board, playerId, moves, 0);
+    }
+
+    /**
+     * Writes all legal moves of a player to the buffer
+     * @param board Board to generate moves for
+     * @param playerId Player to move
+     * @param moves Buffer, must hold MAX_MOVES_PER_PIECE for every piece of the player
+     * @param offset Index in the buffer to write the first move
+     * @return Amount of moves written
+     */
+    public static int generateMoves(KhetBoard board, int playerId, int[] moves, int offset) {
+        int width = board.getWidth();
+        int height = board.getHeight();
+        checkSquareCount(width, height);
+
+        int[] pieceSquares = board.getPieceSquares(playerId);
+        int pieceCount = board.getPieceCount(playerId);
+        long[] forbiddenMask = board.getLayout().getForbiddenMask(playerId);
+        int count = offset;
+
+        for (int i = 0; i < pieceCount; i++) {
+            int square = pieceSquares[i];
+            int x = square % width;
+            int y = square / width;
+            KhetPiece piece = board.getPieceAt(x, y);
+            KhetPieceType type = piece.getType();
+
+            if (type == KhetPieceType.SPHINX) {
+                if (board.canTurnSphinx(x, y, piece.getOrientation().turn(TurnType.CLOCKWISE))) {
+                    moves[count++] = encodeTurn(square, TurnType.CLOCKWISE);
+                }
+                if (board.canTurnSphinx(x, y, piece.getOrientation().turn(TurnType.COUNTERCLOCKWISE))) {
+                    moves[count++] = encodeTurn(square, TurnType.COUNTERCLOCKWISE);
+                }
+            } else {
+                for (int toY = y - 1; toY <= y + 1; toY++) {
+                    for (int toX = x - 1; toX <= x + 1; toX++) {
+                        if (toX < 0 || toY < 0 || toX >= width || toY >= height) continue;
+                        if (toX == x && toY == y) continue;
+
+                        int toSquare = toY * width + toX;
+                        if (KhetBitboard.get(forbiddenMask, toSquare)) continue;
+
+                        KhetPiece occupying = board.getPieceAt(toX, toY);
+                        if (occupying == null || (type == KhetPieceType.SCARAB &&
+                                (occupying.getType() == KhetPieceType.PYRAMID ||
+                                 occupying.getType() == KhetPieceType.ANUBIS))) {
+                            moves[count++] = encodeMove(square, toSquare);
+                        }
+                    }
+                }
+
+                moves[count++] = encodeTurn(square, TurnType.CLOCKWISE);
+                moves[count++] = encodeTurn(square, TurnType.COUNTERCLOCKWISE);
+            }
+        }
+
+        return count - offset;
+    }
+
+    /**
+     * Encoded moves can only hold squares of boards up to MAX_SQUARE_COUNT squares
+     * @throws IllegalArgumentException If the board is bigger
+     */
+    static void checkSquareCount(int width, int height) {
+        if (width * height > MAX_SQUARE_COUNT) {
+            throw new IllegalArgumentException(String.format(
+                    "Board of %dx%d has more than %d squares", width, height, MAX_SQUARE_COUNT));
+        }
+    }
+
+    public static int encodeMove(int fromSquare, int toSquare) {
+        return fromSquare | (toSquare << TO_SHIFT);
+    }
+
+    public static int encodeTurn(int fromSquare, TurnType turnType) {
+        int turn = turnType == TurnType.CLOCKWISE ? TURN_CLOCKWISE : TURN_COUNTERCLOCKWISE;
+        return fromSquare | (turn << TO_SHIFT);
+    }
+
+    public static int getFromSquare(int move) {
+        return move & SQUARE_MASK;
+    }
+
+    /**
+     * @param move Encoded move, not a turn
+     * @return Square the piece moves to
+     */
+    public static int getToSquare(int move) {
+        return move >>> TO_SHIFT;
+    }
+
+    public static boolean isTurn(int move) {
+        return (move >>> TO_SHIFT) >= TURN_COUNTERCLOCKWISE;
+    }
+
+    /**
+     * @param move Encoded move
+     * @return Turn type of a turn move, null for other moves
+     */
+    public static TurnType getTurnType(int move) {
+        switch (move >>> TO_SHIFT) {
+            case TURN_CLOCKWISE:
+                return TurnType.CLOCKWISE;
+            case TURN_COUNTERCLOCKWISE:
+                return TurnType.COUNTERCLOCKWISE;
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * Creates the move object the engine works with from an encoded move
+     * @param move Encoded move
+     * @param width Width of the board
+     * @return KhetMoveMove or KhetTurnMove
+     */
+    public static KhetMove toKhetMove(int move, int width) {
+        int from = getFromSquare(move);
+        KhetCoordinate fromCoordinate = KhetCoordinate.ofSquare(from, width);
+
+        if (isTurn(move)) {
+            return new KhetTurnMove(fromCoordinate, getTurnType(move));
+        }
+
+        int to = getToSquare(move);
+        return new KhetMoveMove(fromCoordinate, KhetCoordinate.ofSquare(to, width));
+    }
+
+    /**
+     * Creates the bot response for an encoded move, e.g. "move 1,2 2,3" or "turn 0,0 cw"
+     * @param move Encoded move
+     * @param width Width of the board
+     * @return Move as a bot would send it
+     */
+    public static String toString(int move, int width) {
+        int from = getFromSquare(move);
+        String fromString = String.format("%d,%d", from % width, from / width);
+
+        if (isTurn(move)) {
+            return String.format("turn %s %s", fromString, getTurnType(move).toString().toLowerCase());
+        }
+
+        int to = getToSquare(move);
+        return String.format("move %s %d,%d", fromString, to % width, to / width);
+    }
+}
@@ -0,0 +1,57 @@
+/*
+ *  Copyright 2017 riddles.io (developers@riddles.io)
+ *
+ *      Licensed under the Apache License, Version 2.0 (the "License");
+ *      you may not use this file except in compliance with the License.
+ *      You may obtain a copy of the License at
+ *
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *      Unless required by applicable law or agreed to in writing, software
+ *      distributed under the License is distributed on an "AS IS" BASIS,
+ *      WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *      See the License for the specific language governing permissions and
+ *      limitations under the License.
+ *
+ *      For the full copyright and license information, please view the LICENSE
+ *      file that was distributed with this source code.
+ */
+
+package io.riddles.khet.game.board;
+
+/**
+ * io.riddles.khet.game.board.KhetMoveResult - Created on 18-10-26
+ *
+ * Outcome of validating a move on a board. Every result other than VALID
+ * carries the message the bot is warned with.
+ *
+ * @author Jim van Eeden - jim@riddles.io
+ */
+public enum KhetMoveResult {
+    VALID(null),
+    ALREADY_INVALID(null),  // the move failed to parse, its exception is already set
+    FROM_OUTSIDE_BOARD("Selected coordinate is outside of the board"),
+    NO_PIECE("There is no piece at selected coordinate"),
+    NOT_OWN_PIECE("Selected piece is not your piece"),
+    SPHINX_MOVE("Can't move a Sphinx piece"),
+    NOT_NEIGHBORING("Piece can only move to a neighboring square"),
+    TO_OUTSIDE_BOARD("Can't move a piece outside of the board"),
+    FORBIDDEN_SQUARE("Your piece can't move to this square"),
+    OCCUPIED_SQUARE("This piece can't move to an occupied square"),
+    CANT_SWITCH("You can't switch places with this piece"),
+    SPHINX_NOT_FACING_BOARD("The Sphinx can only be turned to face the board");
+
+    private final String message;
+
+    KhetMoveResult(String message) {
+        this.message = message;
+    }
+
+    public String getMessage() {
+        return this.message;
+    }
+
+    public boolean isValid() {
+        return this == VALID;
+    }
+}
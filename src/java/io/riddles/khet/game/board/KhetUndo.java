@@ -0,0 +1,96 @@
+/*
+ *  Copyright 2017 riddles.io (developers@riddles.io)
+ *
+ *      Licensed under the Apache License, Version 2.0 (the "License");
+ *      you may not use this file except in compliance with the License.
+ *      You may obtain a copy of the License at
+ *
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *      Unless required by applicable law or agreed to in writing, software
+ *      distributed under the License is distributed on an "AS IS" BASIS,
+ *      WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *      See the License for the specific language governing permissions and
+ *      limitations under the License.
+ *
+ *      For the full copyright and license information, please view the LICENSE
+ *      file that was distributed with this source code.
+ */
+
+package io.riddles.khet.game.board;
+
+import io.riddles.khet.game.board.piece.KhetPiece;
+import io.riddles.khet.game.board.piece.KhetPieceOrientation;
+import io.riddles.khet.game.board.piece.KhetPieceType;
+
+/**
+ * io.riddles.khet.game.board.KhetUndo - Created on 18-10-26
+ *
+ * Undo records returned by KhetBoard.makeMove, packed in a long.
+ * Bits 0-31 hold the encoded move, which also tells which squares were
+ * moved or swapped and the previous orientation of a turned piece.
+ * Bits 32-47 hold the square of the piece destroyed by the laser plus one
+ * (0 if nothing was destroyed) and bits 48-56 describe that piece.
+ * Bit 57 is set when the shot destroyed more pieces, which happens when
+ * a player has more than one sphinx. The board keeps those on its own
+ * undo stack, in the same format.
+ *
+ * @author Jim van Eeden - jim@riddles.io
+ */
+public final class KhetUndo {
+
+    private static final int SQUARE_SHIFT = 32;  // wide enough for KhetMoveGenerator.MAX_SQUARE_COUNT
+    private static final int TYPE_SHIFT = 48;
+    private static final int PLAYER_SHIFT = 51;
+    private static final int ORIENTATION_SHIFT = 55;
+    private static final long MORE_DESTROYED = 1L << 57;
+
+    private KhetUndo() {}
+
+    static long encode(int move, int destroyedSquare, KhetPiece destroyedPiece) {
+        long undo = move & 0xffffffffL;
+
+        if (destroyedPiece != null) {
+            undo |= (long) (destroyedSquare + 1) << SQUARE_SHIFT;
+            undo |= (long) destroyedPiece.getType().ordinal() << TYPE_SHIFT;
+            undo |= (long) destroyedPiece.getPlayerId() << PLAYER_SHIFT;
+            undo |= (long) destroyedPiece.getOrientation().ordinal() << ORIENTATION_SHIFT;
+        }
+
+        return undo;
+    }
+
+    static long withMoreDestroyed(long undo) {
+        return undo | MORE_DESTROYED;
+    }
+
+    static boolean hasMoreDestroyed(long undo) {
+        return (undo & MORE_DESTROYED) != 0;
+    }
+
+    public static int getMove(long undo) {
+        return (int) undo;
+    }
+
+    /**
+     * @param undo Undo record
+     * @return Square of the piece destroyed by the laser, or -1 if there is none
+     */
+    public static int getDestroyedSquare(long undo) {
+        return (int) ((undo >>> SQUARE_SHIFT) & 0xffff) - 1;
+    }
+
+    /**
+     * @param undo Undo record
+     * @return The piece destroyed by the laser, or null if there is none
+     */
+    public static KhetPiece getDestroyedPiece(long undo) {
+        if (getDestroyedSquare(undo) < 0) return null;
+
+        KhetPieceType type = KhetPieceType.values()[(int) ((undo >>> TYPE_SHIFT) & 0x7)];
+        int playerId = (int) ((undo >>> PLAYER_SHIFT) & 0xf);
+        KhetPieceOrientation orientation = KhetPieceOrientation.values()[(int) ((undo >>> ORIENTATION_SHIFT) & 0x3)];
+
+        return KhetPiece.of(type, playerId, orientation);
+    }
+}
@@ -0,0 +1,61 @@
+/*
+ *  Copyright 2017 riddles.io (developers@riddles.io)
+ *
+ *      Licensed under the Apache License, Version 2.0 (the "License");
+ *      you may not use this file except in compliance with the License.
+ *      You may obtain a copy of the License at
+ *
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *      Unless required by applicable law or agreed to in writing, software
+ *      distributed under the License is distributed on an "AS IS" BASIS,
+ *      WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *      See the License for the specific language governing permissions and
+ *      limitations under the License.
+ *
+ *      For the full copyright and license information, please view the LICENSE
+ *      file that was distributed with this source code.
+ */
+
+package io.riddles.khet.game.board;
+
+import io.riddles.khet.game.board.piece.KhetPiece;
+
+/**
+ * io.riddles.khet.game.board.KhetZobrist - Created on 18-10-26
+ *
+ * Zobrist keys for (square, piece type, player, orientation) and for the
+ * player to move. Keys are derived from their index with a fixed seed, so
+ * they are the same in every run and for every board size.
+ *
+ * @author Jim van Eeden - jim@riddles.io
+ */
+public final class KhetZobrist {
+
+    private static final long SEED = 0x4b6865745a6f6272L;
+    private static final long SIDE_TO_MOVE = 1L << 40;
+
+    private KhetZobrist() {}
+
+    public static long getPieceKey(int square, KhetPiece piece) {
+        long index = ((long) square << 13)
+                | (piece.getType().ordinal() << 10)
+                | (piece.getPlayerId() << 2)
+                | piece.getOrientation().ordinal();
+
+        return mix(index);
+    }
+
+    public static long getSideToMoveKey(int playerId) {
+        return mix(SIDE_TO_MOVE | playerId);
+    }
+
+    // SplitMix64 finalizer
+    private static long mix(long index) {
+        long z = SEED + (index + 1) * 0x9e3779b97f4a7c15L;
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+
+        return z ^ (z >>> 31);
+    }
+}
@@ -19,39 +19,154 @@
 
 package io.riddles.khet.game.board.piece;
 
+import io.riddles.khet.game.move.TurnType;
+
 /**
  * io.riddles.khet.game.board.piece.KhetPiece - Created on 8-3-17
  *
- * [description]
+ * Immutable piece. There is exactly one instance for every combination of
+ * type, player and orientation, so pieces can be shared between boards and
+ * compared by reference. Turning a piece returns another canonical piece.
  *
  * @author Jim van Eeden - jim@riddles.io
  */
-public class KhetPiece {
+public final class KhetPiece {
+
+    public static final int MAX_PLAYERS = 10;  // player id is a single digit in the shorthand
+
+    private static final int ORIENTATIONS = KhetPieceOrientation.values().length;
+    private static final int TURN_TYPES = TurnType.values().length;
+    public static final int PIECE_COUNT = KhetPieceType.values().length * MAX_PLAYERS * ORIENTATIONS;
+
+    private static final KhetPiece[] PIECES = new KhetPiece[PIECE_COUNT];
+    private static final KhetPiece[] TURNED = new KhetPiece[PIECE_COUNT * TURN_TYPES];
+
+    static {
+        for (KhetPieceType type : KhetPieceType.values()) {
+            for (int playerId = 0; playerId < MAX_PLAYERS; playerId++) {
+                for (KhetPieceOrientation orientation : KhetPieceOrientation.values()) {
+                    KhetPiece piece = new KhetPiece(type, playerId, orientation);
+                    PIECES[piece.code] = piece;
+                }
+            }
+        }
+
+        for (KhetPiece piece : PIECES) {
+            for (TurnType turnType : TurnType.values()) {
+                KhetPiece turned = of(piece.type, piece.playerId, piece.orientation.turn(turnType));
+                TURNED[piece.code * TURN_TYPES + turnType.ordinal()] = turned;
+            }
+        }
+    }
 
-    private KhetPieceType type;
-    private int playerId;
-    private KhetPieceOrientation orientation;
+    private final KhetPieceType type;
+    private final int playerId;
+    private final KhetPieceOrientation orientation;
+    private final int code;
+    private final String shortHand;
 
-    KhetPiece(KhetPieceType type, int playerId, KhetPieceOrientation orientation) {
+    private KhetPiece(KhetPieceType type, int playerId, KhetPieceOrientation orientation) {
         this.type = type;
         this.playerId = playerId;
         this.orientation = orientation;
+        this.code = getCode(type, playerId, orientation);
+        this.shortHand = String.format("%s%s%s", type, playerId, orientation);
     }
 
+    public static KhetPiece of(KhetPieceType type, int playerId, KhetPieceOrientation orientation) {
+        if (playerId < 0 || playerId >= MAX_PLAYERS) {
+            throw new IllegalArgumentException(String.format("Invalid player id %d for piece", playerId));
+        }
+
+        return PIECES[getCode(type, playerId, orientation)];
+    }
+
+    /**
+     * @param code Code of the piece, see getCode()
+     * @return The canonical piece
+     */
+    public static KhetPiece fromCode(int code) {
+        return PIECES[code];
+    }
+
+    /**
+     * Looks up the canonical piece from its shorthand, e.g. "PY1W"
+     * @param string Piece shorthand
+     * @return The piece, or null if the string is not 4 characters long
+     */
     public static KhetPiece fromString(String string) {
         if (string.length() != 4) {
             return null;
         }
 
-        KhetPieceType type = KhetPieceType.fromString(string.substring(0, 2));
-        int playerId = Integer.parseInt(string.substring(2, 3));
-        KhetPieceOrientation orientation = KhetPieceOrientation.fromString(string.substring(3));
+        KhetPiece piece = parse(string, 0);
+
+        if (piece == null) {
+            throw new IllegalArgumentException(String.format("Unknown piece '%s'", string));
+        }
+
+        return piece;
+    }
+
+    /**
+     * Looks up the canonical piece from the 4 characters of its shorthand at given offset
+     * @param input Characters to read from
+     * @param offset Position of the first character of the shorthand
+     * @return The piece, or null if the characters are not a piece shorthand
+     */
+    public static KhetPiece parse(CharSequence input, int offset) {
+        KhetPieceType type = typeFromChars(input.charAt(offset), input.charAt(offset + 1));
+        int playerId = input.charAt(offset + 2) - '0';
+        KhetPieceOrientation orientation = orientationFromChar(input.charAt(offset + 3));
+
+        if (type == null || orientation == null || playerId < 0 || playerId >= MAX_PLAYERS) {
+            return null;
+        }
+
+        return PIECES[getCode(type, playerId, orientation)];
+    }
 
-        return new KhetPiece(type, playerId, orientation);
+    private static KhetPieceType typeFromChars(char first, char second) {
+        switch (Character.toUpperCase(first)) {
+            case 'P':
+                switch (Character.toUpperCase(second)) {
+                    case 'H': return KhetPieceType.PHARAOH;
+                    case 'Y': return KhetPieceType.PYRAMID;
+                    default: return null;
+                }
+            case 'S':
+                switch (Character.toUpperCase(second)) {
+                    case 'C': return KhetPieceType.SCARAB;
+                    case 'P': return KhetPieceType.SPHINX;
+                    default: return null;
+                }
+            case 'A':
+                return Character.toUpperCase(second) == 'N' ? KhetPieceType.ANUBIS : null;
+            default:
+                return null;
+        }
     }
 
-    public void setOrientation(KhetPieceOrientation orientation) {
-        this.orientation = orientation;
+    private static KhetPieceOrientation orientationFromChar(char character) {
+        switch (Character.toUpperCase(character)) {
+            case 'N': return KhetPieceOrientation.NORTH;
+            case 'E': return KhetPieceOrientation.EAST;
+            case 'S': return KhetPieceOrientation.SOUTH;
+            case 'W': return KhetPieceOrientation.WEST;
+            default: return null;
+        }
+    }
+
+    private static int getCode(KhetPieceType type, int playerId, KhetPieceOrientation orientation) {
+        return (type.ordinal() * MAX_PLAYERS + playerId) * ORIENTATIONS + orientation.ordinal();
+    }
+
+    /**
+     * @param turnType Direction to turn in
+     * @return The canonical piece with the turned orientation
+     */
+    public KhetPiece turn(TurnType turnType) {
+        return TURNED[this.code * TURN_TYPES + turnType.ordinal()];
     }
 
     public KhetPieceType getType() {
@@ -66,8 +181,15 @@ public class KhetPiece {
         return this.orientation;
     }
 
+    /**
+     * @return Number below PIECE_COUNT that identifies this piece
+     */
+    public int getCode() {
+        return this.code;
+    }
+
     @Override
     public String toString() {
-        return String.format("%s%s%s", this.type, this.playerId, this.orientation);
+        return this.shortHand;
     }
 }
@@ -19,8 +19,7 @@
 
 package io.riddles.khet.game.board.piece;
 
-import java.awt.*;
-
+import io.riddles.khet.game.board.KhetCoordinate;
 import io.riddles.khet.game.move.TurnType;
 
 /**
@@ -31,15 +30,17 @@ import io.riddles.khet.game.move.TurnType;
  * @author Jim van Eeden - jim@riddles.io
  */
 public enum KhetPieceOrientation {
-    NORTH("N"),
-    EAST("E"),
-    SOUTH("S"),
-    WEST("W");
+    NORTH("N", 0, -1),
+    EAST("E", 1, 0),
+    SOUTH("S", 0, 1),
+    WEST("W", -1, 0);
 
     private final String shortHand;
+    private final KhetCoordinate direction;
 
-    KhetPieceOrientation(String shortHand) {
+    KhetPieceOrientation(String shortHand, int directionX, int directionY) {
         this.shortHand = shortHand;
+        this.direction = KhetCoordinate.of(directionX, directionY);
     }
 
     public String toString() {
@@ -75,18 +76,7 @@ public enum KhetPieceOrientation {
         return this;
     }
 
-    public Point getDirection() {
-        switch (this) {
-            case NORTH:
-                return new Point(0, -1);
-            case EAST:
-                return new Point(1, 0);
-            case SOUTH:
-                return new Point(0, 1);
-            case WEST:
-                return new Point(-1, 0);
-        }
-
-        return new Point(0, 0);
+    public KhetCoordinate getDirection() {
+        return this.direction;
     }
 }
@@ -19,10 +19,9 @@
 
 package io.riddles.khet.game.move;
 
-import java.awt.*;
-
 import io.riddles.javainterface.exception.InvalidInputException;
 import io.riddles.javainterface.game.move.AbstractMove;
+import io.riddles.khet.game.board.KhetCoordinate;
 
 /**
  * io.riddles.khet.game.move.KhetMove - Created on 8-3-17
@@ -33,10 +32,10 @@ import io.riddles.javainterface.game.move.AbstractMove;
  */
 public class KhetMove extends AbstractMove {
 
-    private Point fromCoordinate;
+    private KhetCoordinate fromCoordinate;
     MoveType moveType;
 
-    KhetMove(Point fromCoordinate) {
+    KhetMove(KhetCoordinate fromCoordinate) {
         super();
         this.fromCoordinate = fromCoordinate;
         this.moveType = MoveType.NONE;
@@ -46,7 +45,7 @@ public class KhetMove extends AbstractMove {
         super(exception);
     }
 
-    public Point getFromCoordinate() {
+    public KhetCoordinate getFromCoordinate() {
         return this.fromCoordinate;
     }
 
@@ -19,78 +19,252 @@
 
 package io.riddles.khet.game.move;
 
-import java.awt.Point;
+import org.json.JSONObject;
 
 import io.riddles.javainterface.exception.InvalidInputException;
 import io.riddles.javainterface.serialize.Deserializer;
+import io.riddles.khet.game.board.KhetCoordinate;
 
 /**
  * io.riddles.khet.game.move.KhetMoveDeserializer - Created on 9-3-17
  *
- * [description]
+ * Parses bot responses like "move x,y x,y" and "turn x,y cw|ccw" in a single
+ * pass over the input, without splitting it into strings or throwing
+ * exceptions. Parts are separated by single spaces and coordinates are
+ * parsed like Integer.parseInt, so error messages are the same as when the
+ * response was split. Invalid moves with a fixed message are shared instances.
  *
  * @author Jim van Eeden - jim@riddles.io
  */
 public class KhetMoveDeserializer implements Deserializer<KhetMove> {
 
+    private static final KhetMove FAILED_TO_PARSE =
+            new KhetMove(new InvalidInputException("Failed to parse move"));
+    private static final KhetMove WRONG_PART_COUNT =
+            new KhetMove(new InvalidInputException("Move doesn't split into 3 parts"));
+
+    private static final long INVALID_NUMBER = Long.MIN_VALUE;
+
     @Override
     public KhetMove traverse(String string) {
-        try {
-            return visitMove(string);
-        } catch (InvalidInputException ex) {
-            return new KhetMove(ex);
-        } catch (Exception ex) {
-            return new KhetMove(new InvalidInputException("Failed to parse move"));
-        }
+        return traverse((CharSequence) string);
     }
 
-    private KhetMove visitMove(String input) throws InvalidInputException {
-        String[] split = input.split(" ");
-        MoveType moveType = MoveType.fromString(split[0]);
+    /**
+     * @param input Response of the bot
+     * @return The move, or a move with an exception if the input is invalid
+     */
+    public KhetMove traverse(CharSequence input) {
+        if (input == null) {
+            return FAILED_TO_PARSE;
+        }
+
+        // trailing spaces are ignored, like the trailing empty strings of split
+        int end = input.length();
+        while (end > 0 && input.charAt(end - 1) == ' ') {
+            end--;
+        }
+
+        if (end == 0) {
+            return input.length() == 0 ? WRONG_PART_COUNT : FAILED_TO_PARSE;
+        }
+
+        int firstSpace = indexOf(input, ' ', 0, end);
+        int secondSpace = firstSpace < 0 ? -1 : indexOf(input, ' ', firstSpace + 1, end);
+
+        if (secondSpace < 0 || indexOf(input, ' ', secondSpace + 1, end) >= 0) {
+            return WRONG_PART_COUNT;
+        }
+
+        if (equalsIgnoreCase(input, 0, firstSpace, "move")) {
+            return visitMoveMove(input, firstSpace + 1, secondSpace, secondSpace + 1, end);
+        }
+        if (equalsIgnoreCase(input, 0, firstSpace, "turn")) {
+            return visitTurnMove(input, firstSpace + 1, secondSpace, secondSpace + 1, end);
+        }
+
+        return invalid(String.format("Move type %s not recognized", input.subSequence(0, firstSpace)));
+    }
 
-        if (split.length != 3) {
-            throw new InvalidInputException("Move doesn't split into 3 parts");
+    /**
+     * Reads a move back from the JSON created by KhetMoveSerializer. Moves that
+     * could not be parsed get an exception with the original message, errors
+     * from the board are not restored because processing the move again
+     * on the same board recreates them.
+     * @param moveObj Serialized move
+     * @return The move
+     */
+    public KhetMove traverseJson(JSONObject moveObj) {
+        if (moveObj.isNull("moveType")) {
+            return createUnparsableMove(moveObj.optString("exception"));
         }
 
-        switch (moveType) {
+        JSONObject from = moveObj.getJSONObject("from");
+        KhetCoordinate fromCoordinate = KhetCoordinate.of(from.getInt("x"), from.getInt("y"));
+
+        switch (MoveType.fromString(moveObj.getString("moveType"))) {
             case MOVE:
-                return visitMoveMove(split[1], split[2]);
+                JSONObject to = moveObj.getJSONObject("to");
+                return new KhetMoveMove(fromCoordinate, KhetCoordinate.of(to.getInt("x"), to.getInt("y")));
             case TURN:
-                return visitTurnMove(split[1], split[2]);
+                return new KhetTurnMove(fromCoordinate, TurnType.fromString(moveObj.getString("turn")));
             default:
-                throw new InvalidInputException(
-                        String.format("Move type %s not recognized", split[0]));
+                throw new RuntimeException("Unknown move type " + moveObj.get("moveType"));
         }
     }
 
-    private KhetMove visitMoveMove(String fromString, String toString) throws InvalidInputException {
-        Point fromCoordinate = visitCoordinate(fromString);
-        Point toCoordinate = visitCoordinate(toString);
+    /**
+     * Recreates a move that failed to parse, for replays
+     * @param exceptionMessage Message of the original exception
+     * @return Invalid move with the exact same exception message
+     */
+    public KhetMove createUnparsableMove(String exceptionMessage) {
+        return new KhetMove(new ReplayedInputException(exceptionMessage));
+    }
+
+    private KhetMove visitMoveMove(CharSequence input, int fromStart, int fromEnd, int toStart, int toEnd) {
+        KhetCoordinate fromCoordinate = visitCoordinate(input, fromStart, fromEnd);
+        if (fromCoordinate == null) {
+            return invalidCoordinate(input, fromStart, fromEnd);
+        }
+
+        KhetCoordinate toCoordinate = visitCoordinate(input, toStart, toEnd);
+        if (toCoordinate == null) {
+            return invalidCoordinate(input, toStart, toEnd);
+        }
 
         return new KhetMoveMove(fromCoordinate, toCoordinate);
     }
 
-    private KhetMove visitTurnMove(String fromString, String turnString) throws InvalidInputException {
-        Point fromCoordinate = visitCoordinate(fromString);
-        TurnType turnType = TurnType.fromString(turnString);
+    private KhetMove visitTurnMove(CharSequence input, int fromStart, int fromEnd, int turnStart, int turnEnd) {
+        KhetCoordinate fromCoordinate = visitCoordinate(input, fromStart, fromEnd);
+        if (fromCoordinate == null) {
+            return invalidCoordinate(input, fromStart, fromEnd);
+        }
 
-        if (turnType == null) {
-            throw new InvalidInputException(String.format("Unknown turn type %s", turnString));
+        TurnType turnType;
+        if (equalsIgnoreCase(input, turnStart, turnEnd, TurnType.CLOCKWISE.toString())) {
+            turnType = TurnType.CLOCKWISE;
+        } else if (equalsIgnoreCase(input, turnStart, turnEnd, TurnType.COUNTERCLOCKWISE.toString())) {
+            turnType = TurnType.COUNTERCLOCKWISE;
+        } else {
+            return invalid(String.format("Unknown turn type %s", input.subSequence(turnStart, turnEnd)));
         }
 
         return new KhetTurnMove(fromCoordinate, turnType);
     }
 
-    private Point visitCoordinate(String coordinate) throws InvalidInputException {
-        try {
-            String[] split = coordinate.split(",");
-            int x = Integer.parseInt(split[0]);
-            int y = Integer.parseInt(split[1]);
+    /**
+     * Parses "x,y", anything after a second comma is ignored
+     * @return The coordinate, or null if it can't be parsed
+     */
+    private KhetCoordinate visitCoordinate(CharSequence input, int start, int end) {
+        int comma = indexOf(input, ',', start, end);
+        if (comma < 0) return null;
+
+        int yEnd = indexOf(input, ',', comma + 1, end);
+        if (yEnd < 0) {
+            yEnd = end;
+        }
+
+        long x = parseInt(input, start, comma);
+        long y = parseInt(input, comma + 1, yEnd);
+
+        if (x == INVALID_NUMBER || y == INVALID_NUMBER) {
+            return null;
+        }
+
+        return KhetCoordinate.of((int) x, (int) y);
+    }
+
+    /**
+     * Same rules as Integer.parseInt: an optional sign followed by digits,
+     * without overflowing an int
+     * @return The number, or INVALID_NUMBER
+     */
+    private long parseInt(CharSequence input, int start, int end) {
+        if (start >= end) return INVALID_NUMBER;
+
+        int index = start;
+        boolean negative = false;
+        char first = input.charAt(index);
+
+        if (first == '-' || first == '+') {
+            negative = first == '-';
+            if (++index == end) return INVALID_NUMBER;
+        }
+
+        long limit = negative ? -(long) Integer.MIN_VALUE : Integer.MAX_VALUE;
+        long result = 0;
+
+        for (; index < end; index++) {
+            int digit = Character.digit(input.charAt(index), 10);
+            if (digit < 0) return INVALID_NUMBER;
+
+            result = result * 10 + digit;
+            if (result > limit) return INVALID_NUMBER;
+        }
+
+        return negative ? -result : result;
+    }
+
+    private int indexOf(CharSequence input, char character, int start, int end) {
+        for (int i = start; i < end; i++) {
+            if (input.charAt(i) == character) return i;
+        }
+
+        return -1;
+    }
+
+    /**
+     * Same comparison as String.equalsIgnoreCase
+     */
+    private boolean equalsIgnoreCase(CharSequence input, int start, int end, String expected) {
+        if (end - start != expected.length()) return false;
+
+        for (int i = 0; i < expected.length(); i++) {
+            char actual = input.charAt(start + i);
+            char other = expected.charAt(i);
+
+            if (actual == other) continue;
+
+            char actualUpper = Character.toUpperCase(actual);
+            char otherUpper = Character.toUpperCase(other);
+
+            if (actualUpper != otherUpper
+                    && Character.toLowerCase(actualUpper) != Character.toLowerCase(otherUpper)) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private KhetMove invalidCoordinate(CharSequence input, int start, int end) {
+        return invalid(String.format("Failed to parse coordinate %s", input.subSequence(start, end)));
+    }
+
+    private KhetMove invalid(String message) {
+        return new KhetMove(new InvalidInputException(message));
+    }
+
+    /**
+     * Keeps the message exactly as it was serialized
+     */
+    private static class ReplayedInputException extends InvalidInputException {
+
+        private static final long serialVersionUID = 1L;
+
+        private String message;
+
+        ReplayedInputException(String message) {
+            super(message);
+            this.message = message;
+        }
 
-            return new Point(x, y);
-        } catch (Exception ex) {
-            throw new InvalidInputException(
-                    String.format("Failed to parse coordinate %s", coordinate));
+        @Override
+        public String getMessage() {
+            return this.message;
         }
     }
  }
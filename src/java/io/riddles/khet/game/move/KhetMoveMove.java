@@ -19,7 +19,7 @@
 
 package io.riddles.khet.game.move;
 
-import java.awt.Point;
+import io.riddles.khet.game.board.KhetCoordinate;
 
 /**
  * io.riddles.khet.game.move.KhetMoveMove - Created on 9-3-17
@@ -30,15 +30,15 @@ import java.awt.Point;
  */
 public class KhetMoveMove extends KhetMove {
 
-    private Point toCoordinate;
+    private KhetCoordinate toCoordinate;
 
-    public KhetMoveMove(Point fromCoordinate, Point toCoordinate) {
+    public KhetMoveMove(KhetCoordinate fromCoordinate, KhetCoordinate toCoordinate) {
         super(fromCoordinate);
         this.toCoordinate = toCoordinate;
         this.moveType = MoveType.MOVE;
     }
 
-    public Point getToCoordinate() {
+    public KhetCoordinate getToCoordinate() {
         return this.toCoordinate;
     }
 }
@@ -21,9 +21,8 @@ package io.riddles.khet.game.move;
 
 import org.json.JSONObject;
 
-import java.awt.*;
-
 import io.riddles.javainterface.serialize.Serializer;
+import io.riddles.khet.game.board.KhetCoordinate;
 
 /**
  * io.riddles.khet.game.move.KhetMoveSerializer - Created on 13-3-17
@@ -60,10 +59,10 @@ public class KhetMoveSerializer implements Serializer<KhetMove> {
         }
 
         if (move instanceof KhetMoveMove) {
-            moveObj.put("from", visitPoint(move.getFromCoordinate()));
-            moveObj.put("to", visitPoint(((KhetMoveMove) move).getToCoordinate()));
+            moveObj.put("from", visitCoordinate(move.getFromCoordinate()));
+            moveObj.put("to", visitCoordinate(((KhetMoveMove) move).getToCoordinate()));
         } else if (move instanceof KhetTurnMove) {
-            moveObj.put("from", visitPoint(move.getFromCoordinate()));
+            moveObj.put("from", visitCoordinate(move.getFromCoordinate()));
             moveObj.put("turn", ((KhetTurnMove) move).getTurnType().toString());
         }
 
@@ -71,12 +70,12 @@ public class KhetMoveSerializer implements Serializer<KhetMove> {
     }
 
     // TODO: move this to javainterface
-    private JSONObject visitPoint(Point point) {
-        JSONObject pointObj = new JSONObject();
+    private JSONObject visitCoordinate(KhetCoordinate coordinate) {
+        JSONObject coordinateObj = new JSONObject();
 
-        pointObj.put("x", point.x);
-        pointObj.put("y", point.y);
+        coordinateObj.put("x", coordinate.getX());
+        coordinateObj.put("y", coordinate.getY());
 
-        return pointObj;
+        return coordinateObj;
     }
 }
@@ -19,7 +19,7 @@
 
 package io.riddles.khet.game.move;
 
-import java.awt.*;
+import io.riddles.khet.game.board.KhetCoordinate;
 
 /**
  * io.riddles.khet.game.move.KhetTurnMove - Created on 9-3-17
@@ -32,7 +32,7 @@ public class KhetTurnMove extends KhetMove {
 
     private TurnType turnType;
 
-    public KhetTurnMove(Point fromCoordinate, TurnType turnType) {
+    public KhetTurnMove(KhetCoordinate fromCoordinate, TurnType turnType) {
         super(fromCoordinate);
         this.turnType = turnType;
         this.moveType = MoveType.TURN;
@@ -19,11 +19,13 @@
 
 package io.riddles.khet.game.processor;
 
-import java.util.ArrayList;
 
+import io.riddles.javainterface.exception.InvalidMoveException;
 import io.riddles.javainterface.game.player.PlayerProvider;
 import io.riddles.javainterface.game.processor.SimpleProcessor;
 import io.riddles.khet.engine.KhetEngine;
+import io.riddles.khet.game.board.KhetBoard;
+import io.riddles.khet.game.board.KhetMoveResult;
 import io.riddles.khet.game.move.ActionType;
 import io.riddles.khet.game.move.KhetMove;
 import io.riddles.khet.game.move.KhetMoveDeserializer;
@@ -42,20 +44,34 @@ public class KhetProcessor extends SimpleProcessor<KhetState, KhetPlayer> {
 
     private KhetMoveDeserializer moveDeserializer;
     private int winnerByOpponentError = -1;  // If a bot returns the wrong input, opponent wins
+    private Integer maxRounds;  // null means it's read from the engine configuration
+    private KhetStateListener stateListener;
 
     public KhetProcessor(PlayerProvider<KhetPlayer> playerProvider) {
         super(playerProvider);
         this.moveDeserializer = new KhetMoveDeserializer();
     }
 
+    /**
+     * Creates a processor that doesn't depend on the static engine configuration,
+     * so multiple matches can run in the same JVM
+     * @param playerProvider Players of the match
+     * @param maxRounds Amount of rounds after which the game ends in a draw
+     */
+    public KhetProcessor(PlayerProvider<KhetPlayer> playerProvider, int maxRounds) {
+        this(playerProvider);
+        this.maxRounds = maxRounds;
+    }
+
     @Override
     public boolean hasGameEnded(KhetState state) {
-        int maxRounds = KhetEngine.configuration.getInt("maxRounds");
-        ArrayList<Integer> noPharaohPlayerIds = state.getBoard().getNoPharaohPlayerIds();
+        int maxRounds = this.maxRounds != null
+                ? this.maxRounds
+                : KhetEngine.configuration.getInt("maxRounds");
 
         return  this.winnerByOpponentError >= 0 ||
                 state.getRoundNumber() >= maxRounds ||
-                noPharaohPlayerIds.size() > 0;
+                state.getBoard().getNoPharaohPlayerCount() > 0;
     }
 
     @Override
@@ -64,10 +80,11 @@ public class KhetProcessor extends SimpleProcessor<KhetState, KhetPlayer> {
             return this.winnerByOpponentError;
         }
 
-        ArrayList<Integer> noPharaohPlayerIds = state.getBoard().getNoPharaohPlayerIds();
+        KhetBoard board = state.getBoard();
 
-        if (noPharaohPlayerIds.size() == 1) {
-            return 2 - (noPharaohPlayerIds.get(0) + 1);
+        if (board.getNoPharaohPlayerCount() == 1) {
+            int noPharaohPlayerId = board.hasPharaoh(0) ? 1 : 0;
+            return 2 - (noPharaohPlayerId + 1);
         }
 
         return null;
@@ -108,18 +125,40 @@ public class KhetProcessor extends SimpleProcessor<KhetState, KhetPlayer> {
     private KhetState createMovePerformedState(KhetState inputState, KhetPlayer player, int roundNumber) {
         int playerId = player.getId();
 
-        KhetState movePerformedState = inputState.createNextState(roundNumber);
-
         String response = player.requestMove(ActionType.MOVE);
         KhetMove move = this.moveDeserializer.traverse(response);
 
-        movePerformedState.getBoard().processMove(move, playerId);
+        KhetState movePerformedState = createMovePerformedState(inputState, move, playerId, roundNumber);
 
         if (move.isInvalid()) {
             player.sendWarning(move.getException().getMessage());
             this.winnerByOpponentError = 2 - (playerId + 1);
         }
 
+        notifyStateCreated(movePerformedState);
+
+        return movePerformedState;
+    }
+
+    /**
+     * Creates the state after given move is performed, without any player interaction.
+     * Also used to rebuild states from a replay. The exception of the move is only
+     * created here, when the move turns out to be invalid.
+     * @param inputState State as it is before the move
+     * @param move Move to perform
+     * @param playerId Player that performs the move
+     * @param roundNumber Current round number
+     * @return State after the move
+     */
+    public static KhetState createMovePerformedState(KhetState inputState, KhetMove move,
+                                                     int playerId, int roundNumber) {
+        KhetState movePerformedState = inputState.createNextState(roundNumber);
+
+        KhetMoveResult result = movePerformedState.getBoard().performMove(move, playerId);
+        if (result.getMessage() != null) {
+            move.setException(new InvalidMoveException(result.getMessage()));
+        }
+
         KhetPlayerState playerState = movePerformedState.getPlayerStateById(playerId);
         playerState.setMove(move);
         movePerformedState.updatePlayerStates();
@@ -135,9 +174,23 @@ public class KhetProcessor extends SimpleProcessor<KhetState, KhetPlayer> {
      * @return State as it is after the laser has fired (laser still visible on board)
      */
     private KhetState createFireLaserState(KhetState inputState, KhetPlayer player, int roundNumber) {
+        KhetState laserOnBoardState = createFireLaserState(inputState, player.getId(), roundNumber);
+        notifyStateCreated(laserOnBoardState);
+
+        return laserOnBoardState;
+    }
+
+    /**
+     * Creates the state after the laser of given player has fired
+     * @param inputState State right after the move of the player
+     * @param playerId Player whose laser will fire
+     * @param roundNumber Current round number
+     * @return State as it is after the laser has fired
+     */
+    public static KhetState createFireLaserState(KhetState inputState, int playerId, int roundNumber) {
         KhetState laserOnBoardState = inputState.createNextState(roundNumber);
 
-        laserOnBoardState.getBoard().fireLaser(player.getId());
+        laserOnBoardState.getBoard().fireLaser(playerId);
         laserOnBoardState.updatePlayerStates();
 
         return laserOnBoardState;
@@ -153,6 +206,21 @@ public class KhetProcessor extends SimpleProcessor<KhetState, KhetPlayer> {
         }
     }
 
+    /**
+     * Sets the listener that receives every state this processor creates,
+     * e.g. to write the played game while the match is going on
+     * @param stateListener Listener, or null to remove it
+     */
+    public void setStateListener(KhetStateListener stateListener) {
+        this.stateListener = stateListener;
+    }
+
+    private void notifyStateCreated(KhetState state) {
+        if (this.stateListener != null) {
+            this.stateListener.onStateCreated(state);
+        }
+    }
+
     private KhetPlayer getPlayer(int id) {
         return this.playerProvider.getPlayerById(id);
     }
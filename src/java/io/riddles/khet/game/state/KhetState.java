@@ -34,16 +34,27 @@ import io.riddles.khet.game.board.KhetBoard;
 public class KhetState extends AbstractState<KhetPlayerState> {
 
     private KhetBoard board;
+    private KhetStateRetention retention;
+    private int stateIndex;
 
     // for initial state only
     public KhetState(ArrayList<KhetPlayerState> playerStates, KhetBoard board) {
-        super(null, playerStates, 0);
+        this(playerStates, board, 0);
+    }
+
+    // for states rebuilt without their previous states, like from a replay archive
+    public KhetState(ArrayList<KhetPlayerState> playerStates, KhetBoard board, int roundNumber) {
+        super(null, playerStates, roundNumber);
         this.board = board;
+        this.retention = KhetStateRetention.keepAll();
     }
 
     public KhetState(KhetState previousState, ArrayList<KhetPlayerState> playerStates, int roundNumber) {
-        super(previousState, playerStates, roundNumber);
+        super(previousState.retention.isLinked() ? previousState : null, playerStates, roundNumber);
         this.board = new KhetBoard(previousState.getBoard());
+        this.retention = previousState.retention;
+        this.stateIndex = previousState.stateIndex + 1;
+        this.retention.onStateCreated(this);
     }
 
     public KhetState createNextState(int roundNumber) {
@@ -58,15 +69,100 @@ public class KhetState extends AbstractState<KhetPlayerState> {
     }
 
     public void updatePlayerStates() {
-        int[] playerPieceCount = this.board.countPlayerPieces();
+        KhetBoard board = getBoard();
 
         for (KhetPlayerState playerState : this.getPlayerStates()) {
-            int pieceCount = playerPieceCount[playerState.getPlayerId()];
-            playerState.setPieceCount(pieceCount);
+            playerState.setPieceCount(board.getPieceCount(playerState.getPlayerId()));
         }
     }
 
+    /**
+     * When history is not kept, states created from this state are not linked
+     * to it, so played states can be garbage collected. Used when the game is
+     * streamed while it's played.
+     * @param keepHistory False to stop linking new states to their previous state
+     */
+    public void setKeepHistory(boolean keepHistory) {
+        setRetention(keepHistory ? KhetStateRetention.keepAll() : KhetStateRetention.none());
+    }
+
+    /**
+     * Sets which of the states created from this state keep their board
+     * @param retention Retention, used for all next states
+     */
+    public void setRetention(KhetStateRetention retention) {
+        this.retention = retention;
+    }
+
+    /**
+     * Boards that are not retained are rebuilt from the closest earlier
+     * board, a rebuilt board should not be modified.
+     * @return Board of this state
+     */
     public KhetBoard getBoard() {
+        if (this.board == null) {
+            KhetBoard rebuiltBoard = this.retention.getRebuiltBoard(this);
+            return rebuiltBoard != null ? rebuiltBoard : rebuildBoard();
+        }
+
         return this.board;
     }
+
+    /**
+     * @return Number of states before this one, as far as they are linked
+     */
+    public int getStateIndex() {
+        return this.stateIndex;
+    }
+
+    void dropBoard() {
+        this.board = null;
+    }
+
+    private KhetBoard rebuildBoard() {
+        ArrayList<KhetState> replayed = new ArrayList<>();
+
+        KhetState state = this;
+        KhetBoard board = null;
+        while (board == null) {
+            replayed.add(state);
+            state = (KhetState) state.getPreviousState();
+            board = state.board != null ? state.board : this.retention.getRebuiltBoard(state);
+        }
+
+        int playerId = state.getMovingPlayerId();
+
+        // replay on copies, like the states were created, so every board has only its own laser
+        for (int i = replayed.size() - 1; i >= 0; i--) {
+            KhetState replayedState = replayed.get(i);
+            int movingPlayerId = replayedState.getMovingPlayerId();
+
+            board = new KhetBoard(board);
+
+            if (movingPlayerId >= 0) {
+                KhetPlayerState playerState = replayedState.getPlayerStateById(movingPlayerId);
+                board.processMove(playerState.getMove(), movingPlayerId);
+                playerId = movingPlayerId;
+            } else {
+                board.fireLaser(playerId);
+            }
+        }
+
+        this.retention.setRebuiltBoard(this, board);
+
+        return board;
+    }
+
+    /**
+     * @return Id of the player that made a move in this state, or -1 if there is none
+     */
+    private int getMovingPlayerId() {
+        for (KhetPlayerState playerState : getPlayerStates()) {
+            if (playerState.getMove() != null) {
+                return playerState.getPlayerId();
+            }
+        }
+
+        return -1;
+    }
 }
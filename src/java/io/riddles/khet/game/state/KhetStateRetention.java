@@ -0,0 +1,130 @@
+/*
+ *  Copyright 2017 riddles.io (developers@riddles.io)
+ *
+ *      Licensed under the Apache License, Version 2.0 (the "License");
+ *      you may not use this file except in compliance with the License.
+ *      You may obtain a copy of the License at
+ *
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *      Unless required by applicable law or agreed to in writing, software
+ *      distributed under the License is distributed on an "AS IS" BASIS,
+ *      WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *      See the License for the specific language governing permissions and
+ *      limitations under the License.
+ *
+ *      For the full copyright and license information, please view the LICENSE
+ *      file that was distributed with this source code.
+ */
+
+package io.riddles.khet.game.state;
+
+import java.util.ArrayDeque;
+
+import io.riddles.khet.game.board.KhetBoard;
+
+/**
+ * io.riddles.khet.game.state.KhetStateRetention - Created on 18-10-26
+ *
+ * Decides which states of a game keep their board. States stay linked, so
+ * their moves are kept, but a board that is not retained is dropped and
+ * rebuilt from the closest earlier board by performing the moves again
+ * when it is needed, e.g. by KhetSerializer. Boards are retained for the
+ * initial state, every snapshotInterval-th state (none if 0) and the
+ * recentStates newest states. One instance is shared by all states of a game.
+ *
+ * @author Jim van Eeden - jim@riddles.io
+ */
+public class KhetStateRetention {
+
+    private boolean linked;
+    private int snapshotInterval;
+    private int recentStates;
+    private ArrayDeque<KhetState> recent;  // newest states that only keep their board for now
+
+    // last rebuilt board, so walking through the states rebuilds every board only once
+    private KhetState rebuiltState;
+    private KhetBoard rebuiltBoard;
+
+    public KhetStateRetention(int snapshotInterval, int recentStates) {
+        this(true, snapshotInterval, recentStates);
+    }
+
+    private KhetStateRetention(boolean linked, int snapshotInterval, int recentStates) {
+        if (snapshotInterval < 0 || recentStates < 1) {
+            throw new IllegalArgumentException(String.format(
+                    "Invalid retention, snapshot interval %d and recent states %d", snapshotInterval, recentStates));
+        }
+
+        this.linked = linked;
+        this.snapshotInterval = snapshotInterval;
+        this.recentStates = recentStates;
+        this.recent = new ArrayDeque<>();
+    }
+
+    /**
+     * @return Retention that keeps every state with its board
+     */
+    public static KhetStateRetention keepAll() {
+        return new KhetStateRetention(1, 1);
+    }
+
+    /**
+     * @return Retention that doesn't link new states to their previous state,
+     * so played states can be garbage collected
+     */
+    public static KhetStateRetention none() {
+        return new KhetStateRetention(false, 1, 1);
+    }
+
+    /**
+     * @param snapshotInterval Number of states between states that keep their board
+     * @return Retention that keeps the board of every snapshotInterval-th state
+     */
+    public static KhetStateRetention snapshots(int snapshotInterval) {
+        return new KhetStateRetention(snapshotInterval, 1);
+    }
+
+    /**
+     * @param recentStates Number of newest states that keep their board
+     * @return Retention that keeps the board of the initial and the newest states
+     */
+    public static KhetStateRetention lastStates(int recentStates) {
+        return new KhetStateRetention(0, recentStates);
+    }
+
+    public boolean isLinked() {
+        return this.linked;
+    }
+
+    boolean isSnapshot(int stateIndex) {
+        return stateIndex == 0 || (this.snapshotInterval > 0 && stateIndex % this.snapshotInterval == 0);
+    }
+
+    /**
+     * Drops the boards of states that are no longer retained now that
+     * given state is the newest
+     * @param state State that was just created
+     */
+    void onStateCreated(KhetState state) {
+        if (!this.linked || this.snapshotInterval == 1) return;
+
+        if (!isSnapshot(state.getStateIndex())) {
+            this.recent.addLast(state);
+        }
+
+        int oldestRecentIndex = state.getStateIndex() - this.recentStates + 1;
+        while (!this.recent.isEmpty() && this.recent.peekFirst().getStateIndex() < oldestRecentIndex) {
+            this.recent.pollFirst().dropBoard();
+        }
+    }
+
+    KhetBoard getRebuiltBoard(KhetState state) {
+        return state == this.rebuiltState ? this.rebuiltBoard : null;
+    }
+
+    void setRebuiltBoard(KhetState state, KhetBoard board) {
+        this.rebuiltState = state;
+        this.rebuiltBoard = board;
+    }
+}
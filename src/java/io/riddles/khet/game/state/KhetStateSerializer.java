@@ -22,11 +22,11 @@ package io.riddles.khet.game.state;
 import org.json.JSONArray;
 import org.json.JSONObject;
 
-import java.awt.Point;
 import java.util.ArrayList;
 
 import io.riddles.javainterface.game.state.AbstractStateSerializer;
 import io.riddles.khet.game.board.KhetBoard;
+import io.riddles.khet.game.board.KhetCoordinate;
 import io.riddles.khet.game.move.KhetMoveSerializer;
 
 /**
@@ -70,11 +70,11 @@ public class KhetStateSerializer extends AbstractStateSerializer<KhetState> {
         }
 
         JSONArray laserPaths = new JSONArray();
-        for (ArrayList<Point> laserPath : board.getLaserPaths()) {
+        for (ArrayList<KhetCoordinate> laserPath : board.getLaserPaths()) {
             JSONArray laserPathObj = new JSONArray();
 
-            for (Point point : laserPath) {
-                laserPathObj.put(visitPoint(point));
+            for (KhetCoordinate coordinate : laserPath) {
+                laserPathObj.put(visitCoordinate(coordinate));
             }
 
             laserPaths.put(laserPathObj);
@@ -88,12 +88,12 @@ public class KhetStateSerializer extends AbstractStateSerializer<KhetState> {
     }
 
     // TODO: move this to javainterface
-    private JSONObject visitPoint(Point point) {
-        JSONObject pointObj = new JSONObject();
+    private JSONObject visitCoordinate(KhetCoordinate coordinate) {
+        JSONObject coordinateObj = new JSONObject();
 
-        pointObj.put("x", point.x);
-        pointObj.put("y", point.y);
+        coordinateObj.put("x", coordinate.getX());
+        coordinateObj.put("y", coordinate.getY());
 
-        return pointObj;
+        return coordinateObj;
     }
 }
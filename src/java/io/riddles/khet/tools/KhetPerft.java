@@ -0,0 +1,248 @@
+/*
+ *  Copyright 2017 riddles.io (developers@riddles.io)
+ *
+ *      Licensed under the Apache License, Version 2.0 (the "License");
+ *      you may not use this file except in compliance with the License.
+ *      You may obtain a copy of the License at
+ *
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *      Unless required by applicable law or agreed to in writing, software
+ *      distributed under the License is distributed on an "AS IS" BASIS,
+ *      WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *      See the License for the specific language governing permissions and
+ *      limitations under the License.
+ *
+ *      For the full copyright and license information, please view the LICENSE
+ *      file that was distributed with this source code.
+ */
+
+package io.riddles.khet.tools;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+
+import io.riddles.khet.engine.KhetEngine;
+import io.riddles.khet.game.board.KhetBoard;
+import io.riddles.khet.game.board.KhetMoveGenerator;
+
+/**
+ * io.riddles.khet.tools.KhetPerft - Created on 18-10-26
+ *
+ * Performance test that counts the positions in the game tree up to a
+ * given depth. One ply is a move plus the laser shot of the same player,
+ * like a player turn in KhetProcessor. Positions where a pharaoh has been
+ * destroyed are not expanded, so they only count when they are at the
+ * final depth.
+ *
+ * Usage: KhetPerft depth [--divide] [--parallel] [--player=id]
+ *                        [--width=w --height=h --board=boardString]
+ *
+ * @author Jim van Eeden - jim@riddles.io
+ */
+public class KhetPerft {
+
+    private int[][] moveBuffers;  // one buffer per remaining depth
+
+    public KhetPerft(KhetBoard board, int depth) {
+        int maxMoves = board.getWidth() * board.getHeight() * KhetMoveGenerator.MAX_MOVES_PER_PIECE;
+        this.moveBuffers = new int[Math.max(depth, 1)][maxMoves];
+    }
+
+    /**
+     * Counts the positions at given depth
+     * @param board Board to start from, is not changed
+     * @param playerId Player to move first
+     * @param depth Amount of plies
+     * @return Node count
+     */
+    public long perft(KhetBoard board, int playerId, int depth) {
+        return search(new KhetBoard(board), playerId, depth);
+    }
+
+    // Walks the tree on a single board using make/unmake
+    private long search(KhetBoard board, int playerId, int depth) {
+        if (depth == 0) return 1;
+
+        int[] moves = this.moveBuffers[depth - 1];
+        int moveCount = KhetMoveGenerator.generateMoves(board, playerId, moves);
+        int nextPlayerId = (playerId + 1) % board.getPlayerCount();
+        long nodes = 0;
+
+        for (int i = 0; i < moveCount; i++) {
+            long undo = board.makeMove(moves[i], playerId);
+
+            if (depth == 1) {
+                nodes++;
+            } else if (!isGameOver(board)) {
+                nodes += search(board, nextPlayerId, depth - 1);
+            }
+
+            board.unmakeMove(undo);
+        }
+
+        return nodes;
+    }
+
+    /**
+     * Counts the positions at given depth for every root move separately
+     * @param board Board to start from, is not changed
+     * @param playerId Player to move first
+     * @param depth Amount of plies, at least 1
+     * @return Node count per encoded root move, in generation order
+     */
+    public Map<Integer, Long> divide(KhetBoard board, int playerId, int depth) {
+        Map<Integer, Long> result = new LinkedHashMap<>();
+        int nextPlayerId = (playerId + 1) % board.getPlayerCount();
+
+        for (int move : getRootMoves(board, playerId)) {
+            KhetBoard child = play(board, move, playerId);
+            long nodes = depth == 1 || !isGameOver(child) ? search(child, nextPlayerId, depth - 1) : 0;
+            result.put(move, nodes);
+        }
+
+        return result;
+    }
+
+    /**
+     * Same as divide, but the root moves are split over the threads of given pool
+     * @param board Board to start from, is not changed
+     * @param playerId Player to move first
+     * @param depth Amount of plies, at least 1
+     * @param pool Pool to run on
+     * @return Node count per encoded root move, in generation order
+     */
+    public static Map<Integer, Long> parallelDivide(KhetBoard board, int playerId, int depth, ForkJoinPool pool) {
+        return pool.invoke(new RecursiveTask<Map<Integer, Long>>() {
+            @Override
+            protected Map<Integer, Long> compute() {
+                ArrayList<RootMoveTask> tasks = new ArrayList<>();
+                for (int move : getRootMoves(board, playerId)) {
+                    tasks.add(new RootMoveTask(board, playerId, move, depth));
+                }
+
+                ForkJoinTask.invokeAll(tasks);
+
+                Map<Integer, Long> result = new LinkedHashMap<>();
+                for (RootMoveTask task : tasks) {
+                    result.put(task.move, task.join());
+                }
+
+                return result;
+            }
+        });
+    }
+
+    private static int[] getRootMoves(KhetBoard board, int playerId) {
+        int[] moves = new int[board.getWidth() * board.getHeight() * KhetMoveGenerator.MAX_MOVES_PER_PIECE];
+        int moveCount = KhetMoveGenerator.generateMoves(board, playerId, moves);
+
+        int[] rootMoves = new int[moveCount];
+        System.arraycopy(moves, 0, rootMoves, 0, moveCount);
+
+        return rootMoves;
+    }
+
+    private static KhetBoard play(KhetBoard board, int move, int playerId) {
+        KhetBoard child = new KhetBoard(board);
+        child.applyMove(move);
+        child.fireLaser(playerId);
+
+        return child;
+    }
+
+    private static boolean isGameOver(KhetBoard board) {
+        return board.getNoPharaohPlayerCount() > 0;
+    }
+
+    private static class RootMoveTask extends RecursiveTask<Long> {
+
+        private static final long serialVersionUID = 1L;
+
+        private KhetBoard board;
+        private int playerId;
+        private int move;
+        private int depth;
+
+        RootMoveTask(KhetBoard board, int playerId, int move, int depth) {
+            this.board = board;
+            this.playerId = playerId;
+            this.move = move;
+            this.depth = depth;
+        }
+
+        @Override
+        protected Long compute() {
+            KhetBoard child = play(this.board, this.move, this.playerId);
+
+            if (this.depth > 1 && isGameOver(child)) return 0L;
+
+            int nextPlayerId = (this.playerId + 1) % child.getPlayerCount();
+            return new KhetPerft(child, this.depth - 1).search(child, nextPlayerId, this.depth - 1);
+        }
+    }
+
+    public static void main(String[] args) {
+        if (args.length < 1) {
+            System.err.println("Usage: KhetPerft depth [--divide] [--parallel] [--player=id] " +
+                    "[--width=w --height=h --board=boardString]");
+            System.exit(1);
+        }
+
+        int depth = Integer.parseInt(args[0]);
+        int width = 10;
+        int height = 8;
+        int playerId = 0;
+        boolean divide = false;
+        boolean parallel = false;
+        String boardString = KhetEngine.getStartingBoardString();
+
+        for (int i = 1; i < args.length; i++) {
+            String arg = args[i];
+
+            if (arg.equals("--divide")) {
+                divide = true;
+            } else if (arg.equals("--parallel")) {
+                parallel = true;
+            } else if (arg.startsWith("--player=")) {
+                playerId = Integer.parseInt(arg.substring("--player=".length()));
+            } else if (arg.startsWith("--width=")) {
+                width = Integer.parseInt(arg.substring("--width=".length()));
+            } else if (arg.startsWith("--height=")) {
+                height = Integer.parseInt(arg.substring("--height=".length()));
+            } else if (arg.startsWith("--board=")) {
+                boardString = arg.substring("--board=".length());
+            } else {
+                throw new IllegalArgumentException(String.format("Unknown argument '%s'", arg));
+            }
+        }
+
+        KhetBoard board = new KhetBoard(width, height, 2, boardString);
+        long start = System.nanoTime();
+        long nodes = 0;
+
+        if (divide || parallel) {
+            Map<Integer, Long> result = parallel
+                    ? parallelDivide(board, playerId, depth, ForkJoinPool.commonPool())
+                    : new KhetPerft(board, depth).divide(board, playerId, depth);
+
+            for (Map.Entry<Integer, Long> entry : result.entrySet()) {
+                if (divide) {
+                    System.out.println(String.format("%s: %d",
+                            KhetMoveGenerator.toString(entry.getKey(), width), entry.getValue()));
+                }
+                nodes += entry.getValue();
+            }
+        } else {
+            nodes = new KhetPerft(board, depth).perft(board, playerId, depth);
+        }
+
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.println(String.format("Depth %d: %d nodes in %.3f s (%.0f nodes/s)",
+                depth, nodes, seconds, nodes / seconds));
+    }
+}
@@ -0,0 +1,112 @@
+/*
+ *  Copyright 2017 riddles.io (developers@riddles.io)
+ *
+ *      Licensed under the Apache License, Version 2.0 (the "License");
+ *      you may not use this file except in compliance with the License.
+ *      You may obtain a copy of the License at
+ *
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *      Unless required by applicable law or agreed to in writing, software
+ *      distributed under the License is distributed on an "AS IS" BASIS,
+ *      WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *      See the License for the specific language governing permissions and
+ *      limitations under the License.
+ *
+ *      For the full copyright and license information, please view the LICENSE
+ *      file that was distributed with this source code.
+ */
+
+package io.riddles.khet.tournament;
+
+import io.riddles.javainterface.io.BotIOHandler;
+import io.riddles.khet.bot.KhetBot;
+import io.riddles.khet.game.board.KhetBoard;
+
+/**
+ * io.riddles.khet.tournament.KhetBotIOHandler - Created on 18-10-26
+ *
+ * Connects a KhetBot object to a player. Reads the settings and updates
+ * the engine sends to the player, and asks the bot for a move whenever
+ * the engine requests one.
+ *
+ * @author Jim van Eeden - jim@riddles.io
+ */
+public class KhetBotIOHandler extends BotIOHandler {
+
+    private KhetBot bot;
+    private int botId;
+    private int width;
+    private int height;
+    private int timebank;
+    private int timePerMove;
+    private int round;
+    private String board;
+    private String lastWarning;
+
+    public KhetBotIOHandler(int botId, KhetBot bot) {
+        super(botId);
+        this.bot = bot;
+        this.botId = botId;
+    }
+
+    @Override
+    public void sendMessage(String message) {
+        String[] split = message.split(" ", 4);
+
+        if (split[0].equals("settings") && split.length == 3) {
+            visitSetting(split[1], split[2]);
+        } else if (split[0].equals("update") && split.length == 4 && split[1].equals("game")) {
+            visitUpdate(split[2], split[3]);
+        }
+    }
+
+    @Override
+    public String sendRequest(String message) {
+        try {
+            KhetBoard board = new KhetBoard(this.width, this.height, 2, this.board);
+            return this.bot.getMove(board, this.botId, this.round);
+        } catch (Exception ex) {
+            return "";  // counts as invalid input, like a crashing bot process
+        }
+    }
+
+    @Override
+    public void sendWarning(String warning) {
+        this.lastWarning = warning;
+    }
+
+    public String getLastWarning() {
+        return this.lastWarning;
+    }
+
+    private void visitSetting(String type, String value) {
+        switch (type) {
+            case "board_width":
+                this.width = Integer.parseInt(value);
+                break;
+            case "board_height":
+                this.height = Integer.parseInt(value);
+                break;
+            case "timebank":
+                this.timebank = Integer.parseInt(value);
+                this.bot.setTime(this.timebank, this.timePerMove);
+                break;
+            case "time_per_move":
+                this.timePerMove = Integer.parseInt(value);
+                this.bot.setTime(this.timebank, this.timePerMove);
+                break;
+        }
+    }
+
+    private void visitUpdate(String type, String value) {
+        switch (type) {
+            case "round":
+                this.round = Integer.parseInt(value);
+                break;
+            case "board":
+                this.board = value;
+                break;
+        }
+    }
+}
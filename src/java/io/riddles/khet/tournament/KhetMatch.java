@@ -0,0 +1,101 @@
+/*
+ *  Copyright 2017 riddles.io (developers@riddles.io)
+ *
+ *      Licensed under the Apache License, Version 2.0 (the "License");
+ *      you may not use this file except in compliance with the License.
+ *      You may obtain a copy of the License at
+ *
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *      Unless required by applicable law or agreed to in writing, software
+ *      distributed under the License is distributed on an "AS IS" BASIS,
+ *      WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *      See the License for the specific language governing permissions and
+ *      limitations under the License.
+ *
+ *      For the full copyright and license information, please view the LICENSE
+ *      file that was distributed with this source code.
+ */
+
+package io.riddles.khet.tournament;
+
+import io.riddles.javainterface.game.player.PlayerProvider;
+import io.riddles.khet.bot.KhetBot;
+import io.riddles.khet.engine.KhetEngine;
+import io.riddles.khet.game.player.KhetPlayer;
+import io.riddles.khet.game.processor.KhetProcessor;
+import io.riddles.khet.game.state.KhetState;
+
+/**
+ * io.riddles.khet.tournament.KhetMatch - Created on 18-10-26
+ *
+ * Plays a single match between two in-process bots, using the same
+ * processor and rules as KhetEngine but without the wrapper.
+ *
+ * @author Jim van Eeden - jim@riddles.io
+ */
+public class KhetMatch {
+
+    // same as the wrapper's defaults
+    public static final int DEFAULT_TIMEBANK = 10000;
+    public static final int DEFAULT_TIME_PER_MOVE = 100;
+
+    private int width;
+    private int height;
+    private int maxRounds;
+    private int timebank;
+    private int timePerMove;
+
+    public KhetMatch(int width, int height, int maxRounds) {
+        this(width, height, maxRounds, DEFAULT_TIMEBANK, DEFAULT_TIME_PER_MOVE);
+    }
+
+    /**
+     * @param timebank Timebank in ms sent to the bots, not enforced
+     * @param timePerMove Time per move in ms sent to the bots, not enforced
+     */
+    public KhetMatch(int width, int height, int maxRounds, int timebank, int timePerMove) {
+        this.width = width;
+        this.height = height;
+        this.maxRounds = maxRounds;
+        this.timebank = timebank;
+        this.timePerMove = timePerMove;
+    }
+
+    /**
+     * Plays the match until it has ended
+     * @param bot0 Bot playing as player 0
+     * @param bot1 Bot playing as player 1
+     * @return Result of the match
+     */
+    public KhetMatchResult play(KhetBot bot0, KhetBot bot1) {
+        PlayerProvider<KhetPlayer> playerProvider = new PlayerProvider<>();
+        playerProvider.add(createPlayer(0, bot0));
+        playerProvider.add(createPlayer(1, bot1));
+
+        KhetProcessor processor = new KhetProcessor(playerProvider, this.maxRounds);
+        KhetState state = KhetEngine.createInitialState(this.width, this.height, playerProvider.getPlayers());
+
+        int roundNumber = 0;
+        while (!processor.hasGameEnded(state)) {
+            roundNumber++;
+            state = processor.createNextState(state, roundNumber);
+        }
+
+        return new KhetMatchResult(processor.getWinnerId(state), state.getRoundNumber());
+    }
+
+    private KhetPlayer createPlayer(int id, KhetBot bot) {
+        KhetPlayer player = new KhetPlayer(id);
+        player.setIoHandler(new KhetBotIOHandler(id, bot));
+
+        player.sendSetting("your_botid", id);
+        player.sendSetting("board_width", this.width);
+        player.sendSetting("board_height", this.height);
+        player.sendSetting("max_rounds", this.maxRounds);
+        player.sendSetting("timebank", this.timebank);
+        player.sendSetting("time_per_move", this.timePerMove);
+
+        return player;
+    }
+}
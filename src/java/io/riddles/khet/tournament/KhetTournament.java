@@ -0,0 +1,128 @@
+/*
+ *  Copyright 2017 riddles.io (developers@riddles.io)
+ *
+ *      Licensed under the Apache License, Version 2.0 (the "License");
+ *      you may not use this file except in compliance with the License.
+ *      You may obtain a copy of the License at
+ *
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *      Unless required by applicable law or agreed to in writing, software
+ *      distributed under the License is distributed on an "AS IS" BASIS,
+ *      WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *      See the License for the specific language governing permissions and
+ *      limitations under the License.
+ *
+ *      For the full copyright and license information, please view the LICENSE
+ *      file that was distributed with this source code.
+ */
+
+package io.riddles.khet.tournament;
+
+import java.util.ArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+
+import io.riddles.khet.bot.KhetBot;
+
+/**
+ * io.riddles.khet.tournament.KhetTournament - Created on 18-10-26
+ *
+ * Plays many matches between two in-process bots on a thread pool.
+ * The bots switch player ids every match. Every match gets new bot
+ * instances from the suppliers, so bots don't need to be thread safe.
+ *
+ * Usage: KhetTournament botClass1 botClass2 matches [threads] [maxRounds]
+ *
+ * @author Jim van Eeden - jim@riddles.io
+ */
+public class KhetTournament {
+
+    private int width;
+    private int height;
+    private int maxRounds;
+    private int threads;
+
+    public KhetTournament(int width, int height, int maxRounds, int threads) {
+        this.width = width;
+        this.height = height;
+        this.maxRounds = maxRounds;
+        this.threads = threads;
+    }
+
+    /**
+     * Plays all matches and waits until they are done
+     * @param firstBot Creates instances of the first bot
+     * @param secondBot Creates instances of the second bot
+     * @param matchCount Amount of matches to play
+     * @return Results from the perspective of the first bot
+     */
+    public KhetTournamentResult run(Supplier<KhetBot> firstBot, Supplier<KhetBot> secondBot, int matchCount) {
+        KhetTournamentResult result = new KhetTournamentResult();
+        ExecutorService executor = Executors.newFixedThreadPool(this.threads);
+
+        try {
+            ArrayList<Future<?>> futures = new ArrayList<>();
+
+            for (int i = 0; i < matchCount; i++) {
+                int firstBotId = i % 2;
+
+                futures.add(executor.submit(() -> {
+                    KhetMatch match = new KhetMatch(this.width, this.height, this.maxRounds);
+                    KhetMatchResult matchResult = firstBotId == 0
+                            ? match.play(firstBot.get(), secondBot.get())
+                            : match.play(secondBot.get(), firstBot.get());
+
+                    result.add(matchResult, firstBotId);
+                }));
+            }
+
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (InterruptedException | ExecutionException ex) {
+            throw new RuntimeException("Tournament failed", ex);
+        } finally {
+            executor.shutdown();
+        }
+
+        return result;
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 3) {
+            System.err.println("Usage: KhetTournament botClass1 botClass2 matches [threads] [maxRounds]");
+            System.exit(1);
+        }
+
+        Supplier<KhetBot> firstBot = createSupplier(args[0]);
+        Supplier<KhetBot> secondBot = createSupplier(args[1]);
+        int matchCount = Integer.parseInt(args[2]);
+        int threads = args.length > 3 ? Integer.parseInt(args[3]) : Runtime.getRuntime().availableProcessors();
+        int maxRounds = args.length > 4 ? Integer.parseInt(args[4]) : 100;
+
+        long start = System.nanoTime();
+        KhetTournamentResult result = new KhetTournament(10, 8, maxRounds, threads)
+                .run(firstBot, secondBot, matchCount);
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        System.out.println(String.format("%s vs %s: %s", args[0], args[1], result));
+        System.out.println(String.format("%d matches in %.3f s (%.1f matches/s)",
+                result.getMatchCount(), seconds, result.getMatchCount() / seconds));
+    }
+
+    private static Supplier<KhetBot> createSupplier(String className) throws ClassNotFoundException {
+        Class<?> botClass = Class.forName(className);
+
+        return () -> {
+            try {
+                return (KhetBot) botClass.getDeclaredConstructor().newInstance();
+            } catch (ReflectiveOperationException ex) {
+                throw new RuntimeException(String.format("Can't create bot %s", className), ex);
+            }
+        };
+    }
+}
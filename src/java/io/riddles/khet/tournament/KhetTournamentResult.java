@@ -0,0 +1,95 @@
+/*
+ *  Copyright 2017 riddles.io (developers@riddles.io)
+ *
+ *      Licensed under the Apache License, Version 2.0 (the "License");
+ *      you may not use this file except in compliance with the License.
+ *      You may obtain a copy of the License at
+ *
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *      Unless required by applicable law or agreed to in writing, software
+ *      distributed under the License is distributed on an "AS IS" BASIS,
+ *      WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *      See the License for the specific language governing permissions and
+ *      limitations under the License.
+ *
+ *      For the full copyright and license information, please view the LICENSE
+ *      file that was distributed with this source code.
+ */
+
+package io.riddles.khet.tournament;
+
+/**
+ * io.riddles.khet.tournament.KhetTournamentResult - Created on 18-10-26
+ *
+ * Win/draw/loss counts of the first bot of a tournament against the
+ * second, and statistics about the length of the matches.
+ *
+ * @author Jim van Eeden - jim@riddles.io
+ */
+public class KhetTournamentResult {
+
+    private int wins;
+    private int draws;
+    private int losses;
+    private long totalRounds;
+    private int minRounds = Integer.MAX_VALUE;
+    private int maxRounds;
+
+    /**
+     * Adds a match result
+     * @param result Result of the match
+     * @param firstBotId Player id the first bot had in this match
+     */
+    public synchronized void add(KhetMatchResult result, int firstBotId) {
+        if (result.getWinnerId() == null) {
+            this.draws++;
+        } else if (result.getWinnerId() == firstBotId) {
+            this.wins++;
+        } else {
+            this.losses++;
+        }
+
+        this.totalRounds += result.getRounds();
+        this.minRounds = Math.min(this.minRounds, result.getRounds());
+        this.maxRounds = Math.max(this.maxRounds, result.getRounds());
+    }
+
+    public synchronized int getWins() {
+        return this.wins;
+    }
+
+    public synchronized int getDraws() {
+        return this.draws;
+    }
+
+    public synchronized int getLosses() {
+        return this.losses;
+    }
+
+    public synchronized int getMatchCount() {
+        return this.wins + this.draws + this.losses;
+    }
+
+    public synchronized long getTotalRounds() {
+        return this.totalRounds;
+    }
+
+    public synchronized int getMinRounds() {
+        return getMatchCount() > 0 ? this.minRounds : 0;
+    }
+
+    public synchronized int getMaxRounds() {
+        return this.maxRounds;
+    }
+
+    public synchronized double getAverageRounds() {
+        return getMatchCount() > 0 ? (double) this.totalRounds / getMatchCount() : 0;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return String.format("W/D/L %d/%d/%d, rounds min %d avg %.1f max %d",
+                this.wins, this.draws, this.losses, getMinRounds(), getAverageRounds(), this.maxRounds);
+    }
+}
@@ -0,0 +1,117 @@
+package io.riddles.khet.bot
+
+import io.riddles.khet.engine.KhetEngine
+import io.riddles.khet.game.board.KhetBoard
+import io.riddles.khet.tournament.KhetBotIOHandler
+import io.riddles.khet.tournament.KhetMatch
+import io.riddles.khet.tournament.KhetMatchResult
+import spock.lang.Specification
+
+import java.util.concurrent.ForkJoinPool
+
+/**
+ * io.riddles.khet.bot.KhetSearchBotSpec - Created on 18-10-26
+ *
+ * [description]
+ *
+ * @author Jim van Eeden - jim@riddles.io
+ */
+class KhetSearchBotSpec extends Specification {
+
+    def "test search finds the winning shot"() {
+        setup:
+        KhetBoard board = new KhetBoard(4, 3, 2, "0SP0S,.,.,.PH0N,.,.,.,1SP1E,.PY0E,.PH1N,.,.")
+        String before = board.toString()
+        KhetSearchBot bot = new KhetSearchBot(1000, new ForkJoinPool(2), new KhetTranspositionTable(10))
+
+        when:
+        String move = bot.getMove(board, 0, 1)
+
+        then:
+        move == "turn 0,2 ccw"
+        bot.getLastResult().getScore() == KhetSearchBot.WIN_SCORE - 1
+        bot.getLastResult().getDepth() == 1
+        board.toString() == before
+    }
+
+    def "test search on a bigger board after a smaller one"() {
+        setup:
+        KhetBoard small = new KhetBoard(3, 2, 2, "0SP0S,.PH0N,.,.,.PH1N,1SP1N")  // buffers for 60 moves
+        KhetBoard big = new KhetBoard(10, 8, 2, KhetEngine.getStartingBoardString())  // 81 moves
+        KhetSearchBot bot = new KhetSearchBot(1000000, null, new KhetTranspositionTable(16))
+
+        when:
+        bot.search(small, 0, 3)
+        KhetSearchResult result = bot.search(big, 0, 3)
+
+        then:
+        result.getDepth() == 3
+        big.toString() == new KhetBoard(10, 8, 2, KhetEngine.getStartingBoardString()).toString()
+    }
+
+    def "test search stays within the time per move"() {
+        setup:
+        KhetBoard board = new KhetBoard(10, 8, 2, KhetEngine.getStartingBoardString())
+        KhetSearchBot bot = new KhetSearchBot(50, new ForkJoinPool(2), new KhetTranspositionTable(16))
+
+        when:
+        KhetSearchResult result = bot.search(board, 0)
+
+        then:
+        result.getDepth() >= 1
+        result.getNodes() > 0
+        result.getNanos() < 50 * 1000000L
+        result.getNodesPerSecond() > 0
+    }
+
+    def "test search bot beats random bot"() {
+        when:
+        KhetMatchResult result = new KhetMatch(10, 8, 100, 10000, 20)
+                .play(new KhetSearchBot(), new KhetRandomBot(new Random(1)))
+
+        then:
+        result.getWinnerId() == 0
+    }
+
+    def "test time per move is read from the settings"() {
+        setup:
+        KhetSearchBot bot = new KhetSearchBot()
+        KhetBotIOHandler ioHandler = new KhetBotIOHandler(0, bot)
+        ioHandler.sendMessage("settings board_width 10")
+        ioHandler.sendMessage("settings board_height 8")
+        ioHandler.sendMessage("update game round 1")
+        ioHandler.sendMessage("update game board " + KhetEngine.getStartingBoardString())
+
+        when:
+        ioHandler.sendMessage("settings timebank 10000")
+        ioHandler.sendMessage("settings time_per_move 30")
+        ioHandler.sendRequest("action move")
+
+        then:
+        bot.getLastResult().getNanos() < 30 * 1000000L
+    }
+
+    def "test transposition table"() {
+        setup:
+        KhetTranspositionTable table = new KhetTranspositionTable(4)
+
+        when:
+        table.store(42L, 12345, -321, 3, KhetTranspositionTable.LOWER_BOUND)
+        table.store(42L, 777, 5, 2, KhetTranspositionTable.EXACT)
+        long data = table.probe(42L)
+
+        then:
+        KhetTranspositionTable.getMove(data) == 12345
+        KhetTranspositionTable.getScore(data) == -321
+        KhetTranspositionTable.getDepth(data) == 3
+        KhetTranspositionTable.getBound(data) == KhetTranspositionTable.LOWER_BOUND
+        table.probe(42L + 16) == KhetTranspositionTable.NOT_FOUND
+
+        when:
+        table.store(42L + 16, 1, KhetSearchBot.WIN_SCORE, 1, KhetTranspositionTable.EXACT)
+
+        then:
+        table.probe(42L) == KhetTranspositionTable.NOT_FOUND
+        KhetTranspositionTable.getScore(table.probe(42L + 16)) == KhetSearchBot.WIN_SCORE
+    }
+}
@@ -0,0 +1,67 @@
+package io.riddles.khet.engine
+
+import io.riddles.javainterface.game.player.PlayerProvider
+import io.riddles.javainterface.io.IOInterface
+import io.riddles.khet.bot.KhetRandomBot
+import io.riddles.khet.game.KhetReplayDecoder
+import io.riddles.khet.game.KhetSerializer
+import io.riddles.khet.game.player.KhetPlayer
+import io.riddles.khet.game.processor.KhetProcessor
+import io.riddles.khet.game.state.KhetState
+import io.riddles.khet.tournament.KhetBotIOHandler
+import org.json.JSONObject
+import spock.lang.Specification
+
+/**
+ * io.riddles.khet.engine.KhetEngineSpec - Created on 18-10-26
+ *
+ * [description]
+ *
+ * @author Jim van Eeden - jim@riddles.io
+ */
+class KhetEngineSpec extends Specification {
+
+    def cleanup() {
+        KhetEngine.configuration.put("compactPlayedGame", 0)
+    }
+
+    def "test compact played game has the winner and score of the last state"() {
+        setup:
+        KhetEngine engine = new KhetEngine(createPlayers(), Mock(IOInterface))
+        KhetEngine.configuration.put("compactPlayedGame", 1)
+
+        when:
+        KhetState initialState = engine.getInitialState()
+        KhetProcessor processor = engine.processor
+        KhetState state = initialState
+        int roundNumber = 0
+        while (!processor.hasGameEnded(state)) {
+            state = processor.createNextState(state, ++roundNumber)
+        }
+
+        JSONObject compact = new JSONObject(engine.getPlayedGame(initialState))
+        JSONObject full = new JSONObject(new KhetSerializer().traverseToString(
+                processor, new KhetReplayDecoder(compact).getInitialState()))
+
+        then:
+        !initialState.hasNextState()
+        roundNumber > 0
+        processor.getWinnerId(state) != null
+        full.keySet().findAll { it != "states" }.every {
+            compact.has(it) && JSONObject.valueToString(compact.get(it)) == JSONObject.valueToString(full.get(it))
+        }
+    }
+
+    private static PlayerProvider<KhetPlayer> createPlayers() {
+        PlayerProvider<KhetPlayer> playerProvider = new PlayerProvider<>()
+        for (int id = 0; id < 2; id++) {
+            KhetPlayer player = new KhetPlayer(id)
+            player.setIoHandler(new KhetBotIOHandler(id, new KhetRandomBot(new Random(id))))
+            player.sendSetting("board_width", 10)
+            player.sendSetting("board_height", 8)
+            playerProvider.add(player)
+        }
+
+        return playerProvider
+    }
+}
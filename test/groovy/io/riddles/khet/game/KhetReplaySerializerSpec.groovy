@@ -0,0 +1,99 @@
+package io.riddles.khet.game
+
+import io.riddles.javainterface.game.player.PlayerProvider
+import io.riddles.khet.bot.KhetBot
+import io.riddles.khet.bot.KhetRandomBot
+import io.riddles.khet.engine.KhetEngine
+import io.riddles.khet.game.player.KhetPlayer
+import io.riddles.khet.game.processor.KhetProcessor
+import io.riddles.khet.game.state.KhetState
+import io.riddles.khet.game.state.KhetStateSerializer
+import io.riddles.khet.tournament.KhetBotIOHandler
+import org.json.JSONObject
+import spock.lang.Specification
+
+/**
+ * io.riddles.khet.game.KhetReplaySerializerSpec - Created on 18-10-26
+ *
+ * [description]
+ *
+ * @author Jim van Eeden - jim@riddles.io
+ */
+class KhetReplaySerializerSpec extends Specification {
+
+    def "test decoded replay equals serialized game"() {
+        setup:
+        Map played = playGame(new KhetRandomBot(new Random(0)), new KhetRandomBot(new Random(1)))
+        KhetProcessor processor = played.processor as KhetProcessor
+        KhetState initialState = played.initialState as KhetState
+
+        when:
+        String expected = new KhetSerializer().traverseToString(processor, initialState)
+        String replay = new KhetReplaySerializer().traverseToString(processor, initialState)
+        KhetReplayDecoder decoder = new KhetReplayDecoder(replay)
+        String decoded = new KhetSerializer().traverseToString(processor, decoder.getInitialState())
+
+        then:
+        replay.length() < expected.length()
+        new JSONObject(decoded).similar(new JSONObject(expected))
+    }
+
+    def "test decoder rebuilds single states"() {
+        setup:
+        Map played = playGame(new KhetRandomBot(new Random(2)), new KhetRandomBot(new Random(3)))
+        KhetState initialState = played.initialState as KhetState
+        KhetReplayDecoder decoder = new KhetReplayDecoder(new KhetReplaySerializer().traverseToString(
+                played.processor as KhetProcessor, initialState))
+        KhetStateSerializer stateSerializer = new KhetStateSerializer()
+
+        List<KhetState> states = [initialState]
+        while (states.last().hasNextState()) {
+            states.add(states.last().getNextState() as KhetState)
+        }
+
+        expect:
+        decoder.getStateCount() == states.size()
+        [states.size() - 1, 0, 5, 4].every { int index ->
+            stateSerializer.traverseToJson(decoder.getState(index))
+                    .similar(stateSerializer.traverseToJson(states[index]))
+        }
+    }
+
+    def "test unparsable move is kept in replay"() {
+        setup:
+        KhetBot invalidBot = { board, botId, round -> "move 1,2" } as KhetBot
+        Map played = playGame(invalidBot, new KhetRandomBot(new Random(4)))
+        KhetProcessor processor = played.processor as KhetProcessor
+        KhetState initialState = played.initialState as KhetState
+
+        when:
+        String replay = new KhetReplaySerializer().traverseToString(processor, initialState)
+        KhetState moveState = new KhetReplayDecoder(replay).getState(1)
+
+        then:
+        moveState.getPlayerStateById(0).getMove().getException().getMessage() ==
+                (initialState.getNextState() as KhetState).getPlayerStateById(0).getMove().getException().getMessage()
+    }
+
+    private static Map playGame(KhetBot bot0, KhetBot bot1) {
+        PlayerProvider<KhetPlayer> playerProvider = new PlayerProvider<>()
+        [bot0, bot1].eachWithIndex { KhetBot bot, int id ->
+            KhetPlayer player = new KhetPlayer(id)
+            player.setIoHandler(new KhetBotIOHandler(id, bot))
+            player.sendSetting("board_width", 10)
+            player.sendSetting("board_height", 8)
+            playerProvider.add(player)
+        }
+
+        KhetProcessor processor = new KhetProcessor(playerProvider, 30)
+        KhetState initialState = KhetEngine.createInitialState(10, 8, playerProvider.getPlayers())
+
+        KhetState state = initialState
+        int roundNumber = 0
+        while (!processor.hasGameEnded(state)) {
+            state = processor.createNextState(state, ++roundNumber)
+        }
+
+        return [processor: processor, initialState: initialState]
+    }
+}
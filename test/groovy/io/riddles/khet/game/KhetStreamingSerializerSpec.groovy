@@ -0,0 +1,66 @@
+package io.riddles.khet.game
+
+import io.riddles.javainterface.game.player.PlayerProvider
+import io.riddles.khet.bot.KhetRandomBot
+import io.riddles.khet.engine.KhetEngine
+import io.riddles.khet.game.player.KhetPlayer
+import io.riddles.khet.game.processor.KhetProcessor
+import io.riddles.khet.game.state.KhetState
+import io.riddles.khet.tournament.KhetBotIOHandler
+import org.json.JSONObject
+import spock.lang.Specification
+
+/**
+ * io.riddles.khet.game.KhetStreamingSerializerSpec - Created on 18-10-26
+ *
+ * [description]
+ *
+ * @author Jim van Eeden - jim@riddles.io
+ */
+class KhetStreamingSerializerSpec extends Specification {
+
+    def "test streamed game equals serialized game"() {
+        setup:
+        StringWriter writer = new StringWriter()
+        KhetStreamingSerializer streamingSerializer = new KhetStreamingSerializer(writer)
+
+        when:
+        Map played = playGame(true, null)
+        Map streamed = playGame(false, streamingSerializer)
+        streamingSerializer.finish(streamed.processor as KhetProcessor)
+        String expected = new KhetSerializer().traverseToString(
+                played.processor as KhetProcessor, played.initialState as KhetState)
+
+        then:
+        !(streamed.initialState as KhetState).hasNextState()
+        new JSONObject(writer.toString()).similar(new JSONObject(expected))
+    }
+
+    private static Map playGame(boolean keepHistory, KhetStreamingSerializer serializer) {
+        PlayerProvider<KhetPlayer> playerProvider = new PlayerProvider<>()
+        for (int id = 0; id < 2; id++) {
+            KhetPlayer player = new KhetPlayer(id)
+            player.setIoHandler(new KhetBotIOHandler(id, new KhetRandomBot(new Random(id))))
+            player.sendSetting("board_width", 10)
+            player.sendSetting("board_height", 8)
+            playerProvider.add(player)
+        }
+
+        KhetProcessor processor = new KhetProcessor(playerProvider, 30)
+        KhetState initialState = KhetEngine.createInitialState(10, 8, playerProvider.getPlayers())
+        initialState.setKeepHistory(keepHistory)
+
+        if (serializer != null) {
+            serializer.writeState(initialState)
+            processor.setStateListener(serializer)
+        }
+
+        KhetState state = initialState
+        int roundNumber = 0
+        while (!processor.hasGameEnded(state)) {
+            state = processor.createNextState(state, ++roundNumber)
+        }
+
+        return [processor: processor, initialState: initialState]
+    }
+}
@@ -0,0 +1,118 @@
+package io.riddles.khet.game.archive
+
+import io.riddles.javainterface.game.player.PlayerProvider
+import io.riddles.khet.bot.KhetRandomBot
+import io.riddles.khet.engine.KhetEngine
+import io.riddles.khet.game.move.KhetMove
+import io.riddles.khet.game.move.KhetMoveDeserializer
+import io.riddles.khet.game.player.KhetPlayer
+import io.riddles.khet.game.processor.KhetProcessor
+import io.riddles.khet.game.state.KhetState
+import io.riddles.khet.game.state.KhetStateSerializer
+import io.riddles.khet.tournament.KhetBotIOHandler
+import spock.lang.Specification
+
+import java.nio.file.Files
+import java.nio.file.Path
+
+/**
+ * io.riddles.khet.game.archive.KhetArchiveSpec - Created on 18-10-26
+ *
+ * [description]
+ *
+ * @author Jim van Eeden - jim@riddles.io
+ */
+class KhetArchiveSpec extends Specification {
+
+    def "test archived states equal played states"() {
+        setup:
+        List<List<KhetState>> games = [playGame(0), playGame(2)]
+        Path path = Files.createTempFile("khet", ".archive")
+        KhetStateSerializer stateSerializer = new KhetStateSerializer()
+
+        when:
+        new KhetArchiveWriter(Files.newOutputStream(path), 3).withCloseable { KhetArchiveWriter writer ->
+            games.each { writer.addGame(it.first()) }
+        }
+        KhetArchiveReader reader = new KhetArchiveReader(path)
+
+        then:
+        reader.getGameCount() == 2
+        games.indexed().every { int game, List<KhetState> states ->
+            reader.getStateCount(game) == states.size() &&
+                    states.indexed().every { int index, KhetState state ->
+                        stateSerializer.traverseToJson(reader.getState(game, index))
+                                .similar(stateSerializer.traverseToJson(state))
+                    }
+        }
+
+        cleanup:
+        reader?.close()
+        Files.deleteIfExists(path)
+    }
+
+    def "test board at round"() {
+        setup:
+        List<KhetState> states = playGame(4)
+        Path path = Files.createTempFile("khet", ".archive")
+        new KhetArchiveWriter(Files.newOutputStream(path), 4).withCloseable { it.addGame(states.first()) }
+        KhetArchiveReader reader = new KhetArchiveReader(path)
+
+        expect:
+        reader.getBoard(0, 0).toString() == states.first().getBoard().toString()
+        reader.getBoard(0, 5).toString() == states.findAll { it.getRoundNumber() == 5 }.last().getBoard().toString()
+        reader.getBoard(0, 1000).toString() == states.last().getBoard().toString()
+
+        cleanup:
+        reader?.close()
+        Files.deleteIfExists(path)
+    }
+
+    def "test long exception message is cut on a character boundary"() {
+        setup:
+        String message = "\u00e9" * 40000  // two bytes per character in UTF-8
+        KhetState initialState = KhetEngine.createInitialState(10, 8, [new KhetPlayer(0), new KhetPlayer(1)])
+        KhetMove move = new KhetMoveDeserializer().createUnparsableMove(message)
+        KhetState moveState = KhetProcessor.createMovePerformedState(initialState, move, 0, 1)
+        KhetProcessor.createFireLaserState(moveState, 0, 1)
+        Path path = Files.createTempFile("khet", ".archive")
+        new KhetArchiveWriter(Files.newOutputStream(path)).withCloseable { it.addGame(initialState) }
+        KhetArchiveReader reader = new KhetArchiveReader(path)
+
+        when:
+        KhetMove archivedMove = reader.getState(0, 1).getPlayerStateById(0).getMove() as KhetMove
+        String archived = archivedMove.getException().getMessage()
+
+        then:
+        archived == message.substring(0, 32767)
+
+        cleanup:
+        reader?.close()
+        Files.deleteIfExists(path)
+    }
+
+    private static List<KhetState> playGame(int seed) {
+        PlayerProvider<KhetPlayer> playerProvider = new PlayerProvider<>()
+        for (int id = 0; id < 2; id++) {
+            KhetPlayer player = new KhetPlayer(id)
+            player.setIoHandler(new KhetBotIOHandler(id, new KhetRandomBot(new Random(seed + id))))
+            player.sendSetting("board_width", 10)
+            player.sendSetting("board_height", 8)
+            playerProvider.add(player)
+        }
+
+        KhetProcessor processor = new KhetProcessor(playerProvider, 30)
+        KhetState state = KhetEngine.createInitialState(10, 8, playerProvider.getPlayers())
+        List<KhetState> states = [state]
+
+        int roundNumber = 0
+        while (!processor.hasGameEnded(state)) {
+            state = processor.createNextState(state, ++roundNumber)
+        }
+        while (states.last().hasNextState()) {
+            states.add(states.last().getNextState() as KhetState)
+        }
+
+        return states
+    }
+}
@@ -3,12 +3,13 @@ package io.riddles.khet.game.board
 import io.riddles.javainterface.exception.InvalidMoveException
 import io.riddles.khet.game.board.piece.KhetPieceOrientation
 import io.riddles.khet.game.board.piece.KhetPieceType
+import io.riddles.khet.game.move.KhetMove
+import io.riddles.khet.game.move.KhetMoveDeserializer
 import io.riddles.khet.game.move.KhetMoveMove
 import io.riddles.khet.game.move.KhetTurnMove
 import io.riddles.khet.game.move.TurnType
 import spock.lang.Specification
-
-import java.awt.Point
+import spock.lang.Unroll
 
 /**
  * io.riddles.khet.game.board.KhetBoardSpec - Created on 10-3-17
@@ -48,10 +49,10 @@ class KhetBoardSpec extends Specification {
         KhetBoard board = new KhetBoard(10, 8, 2, initialBoard)
 
         when:
-        KhetMoveMove moveMove = new KhetMoveMove(new Point(0, 0), new Point(0, 1))
-        KhetTurnMove turnMove1 = new KhetTurnMove(new Point(0, 0), TurnType.CLOCKWISE)
-        KhetTurnMove turnMove2 = new KhetTurnMove(new Point(0, 0), TurnType.COUNTERCLOCKWISE)
-        KhetTurnMove turnMove3 = new KhetTurnMove(new Point(0, 0), TurnType.COUNTERCLOCKWISE)
+        KhetMoveMove moveMove = new KhetMoveMove(KhetCoordinate.of(0, 0), KhetCoordinate.of(0, 1))
+        KhetTurnMove turnMove1 = new KhetTurnMove(KhetCoordinate.of(0, 0), TurnType.CLOCKWISE)
+        KhetTurnMove turnMove2 = new KhetTurnMove(KhetCoordinate.of(0, 0), TurnType.COUNTERCLOCKWISE)
+        KhetTurnMove turnMove3 = new KhetTurnMove(KhetCoordinate.of(0, 0), TurnType.COUNTERCLOCKWISE)
         board.processMove(moveMove, 0)
         board.processMove(turnMove1, 0)
         board.processMove(turnMove2, 0)
@@ -63,7 +64,7 @@ class KhetBoardSpec extends Specification {
         turnMove1.getException() instanceof InvalidMoveException
         turnMove1.getException().getMessage() == "Invalid move: The Sphinx can only be turned to face the board"
         turnMove2.getException() == null
-        board.getFieldAt(new Point(0, 0)).getOrientation() == KhetPieceOrientation.EAST
+        board.getPieceAt(KhetCoordinate.of(0, 0)).getOrientation() == KhetPieceOrientation.EAST
         turnMove3.getException() instanceof InvalidMoveException
         turnMove3.getException().getMessage() == "Invalid move: The Sphinx can only be turned to face the board"
     }
@@ -73,13 +74,13 @@ class KhetBoardSpec extends Specification {
         KhetBoard board = new KhetBoard(10, 8, 2, initialBoard)
 
         when:
-        KhetTurnMove turnMove1 = new KhetTurnMove(new Point(4, 3), TurnType.CLOCKWISE)
-        KhetTurnMove turnMove2 = new KhetTurnMove(new Point(4, 3), TurnType.COUNTERCLOCKWISE)
-        KhetMoveMove moveMove1 = new KhetMoveMove(new Point(3, 3), new Point(3, 2))
-        KhetMoveMove moveMove2 = new KhetMoveMove(new Point(4, 3), new Point(3, 2))
-        KhetMoveMove moveMove3 = new KhetMoveMove(new Point(4, 3), new Point(4, 1))
-        KhetMoveMove moveMove4 = new KhetMoveMove(new Point(4, 3), new Point(5, 3))
-        KhetMoveMove moveMove5 = new KhetMoveMove(new Point(4, 3), new Point(3, 2))
+        KhetTurnMove turnMove1 = new KhetTurnMove(KhetCoordinate.of(4, 3), TurnType.CLOCKWISE)
+        KhetTurnMove turnMove2 = new KhetTurnMove(KhetCoordinate.of(4, 3), TurnType.COUNTERCLOCKWISE)
+        KhetMoveMove moveMove1 = new KhetMoveMove(KhetCoordinate.of(3, 3), KhetCoordinate.of(3, 2))
+        KhetMoveMove moveMove2 = new KhetMoveMove(KhetCoordinate.of(4, 3), KhetCoordinate.of(3, 2))
+        KhetMoveMove moveMove3 = new KhetMoveMove(KhetCoordinate.of(4, 3), KhetCoordinate.of(4, 1))
+        KhetMoveMove moveMove4 = new KhetMoveMove(KhetCoordinate.of(4, 3), KhetCoordinate.of(5, 3))
+        KhetMoveMove moveMove5 = new KhetMoveMove(KhetCoordinate.of(4, 3), KhetCoordinate.of(3, 2))
         board.processMove(turnMove1, 0)
         board.processMove(turnMove2, 0)
         board.processMove(moveMove1, 0)
@@ -96,9 +97,9 @@ class KhetBoardSpec extends Specification {
         moveMove3.getException() instanceof InvalidMoveException
         moveMove4.getException() instanceof InvalidMoveException
         moveMove5.getException() == null
-        board.getFieldAt(new Point(3, 2)).getType() == KhetPieceType.SCARAB
-        board.getFieldAt(new Point(3, 2)).getOrientation() == KhetPieceOrientation.NORTH
-        board.getFieldAt(new Point(4, 3)).getType() == KhetPieceType.PYRAMID
+        board.getPieceAt(KhetCoordinate.of(3, 2)).getType() == KhetPieceType.SCARAB
+        board.getPieceAt(KhetCoordinate.of(3, 2)).getOrientation() == KhetPieceOrientation.NORTH
+        board.getPieceAt(KhetCoordinate.of(4, 3)).getType() == KhetPieceType.PYRAMID
     }
 
     def "test fire laser"() {
@@ -127,6 +128,374 @@ class KhetBoardSpec extends Specification {
                             "0,.,.,.,.,.,.PY0E,.,.,1," +
                             "0,.,.,.,.,.,.,.PY1N,.,1," +
                             "0,1,.PY1S,.AN1N,.PH1N,.AN1N,.,.,0,1SP1N"
-        board2.getFieldAt(new Point(2, 4)) == null
+        board2.getPieceAt(KhetCoordinate.of(2, 4)) == null
+    }
+
+    def "test piece counts and pharaoh presence"() {
+        setup:
+        String input = "0SP0S,1    ,.    ,.    ,.AN0S,.    ,.AN0S,.PY0E,0    ,1    ," +
+                       "0    ,.    ,.PY0S,.    ,.    ,.    ,.    ,.    ,.    ,1    ," +
+                       "0    ,.    ,.    ,.PY1E,.    ,.    ,.    ,.    ,.    ,1    ," +
+                       "0PY0N,.    ,.PY1S,.    ,.SC0N,.SC0E,.    ,.PY0E,.    ,1PY1W," +
+                       "0PY0E,.    ,.PY1W,.    ,.SC1E,.SC1N,.    ,.PY0N,.    ,1PY1S," +
+                       "0    ,.    ,.    ,.    ,.    ,.    ,.PY0E,.    ,.    ,1    ," +
+                       "0    ,.    ,.    ,.    ,.    ,.    ,.    ,.PY1N,.    ,1    ," +
+                       "0    ,1    ,.PY1S,.AN1N,.PH1N,.AN1N,.    ,.    ,0    ,1SP1N"
+
+        when:
+        KhetBoard initial = new KhetBoard(10, 8, 2, initialBoard)
+        KhetBoard noPharaoh = new KhetBoard(10, 8, 2, input)
+
+        then:
+        initial.countPlayerPieces() == [13, 13] as int[]
+        initial.countPieces(0, KhetPieceType.PYRAMID) == 7
+        initial.getNoPharaohPlayerIds().isEmpty()
+        initial.getNoPharaohPlayerCount() == 0
+        noPharaoh.countPlayerPieces() == [12, 13] as int[]
+        noPharaoh.getPieceCount(0) == 12
+        noPharaoh.getNoPharaohPlayerCount() == 1
+        !noPharaoh.hasPharaoh(0)
+        noPharaoh.hasPharaoh(1)
+        noPharaoh.getNoPharaohPlayerIds() == [0]
+    }
+
+    def "test board layout"() {
+        setup:
+        KhetBoard board = new KhetBoard(10, 8, 2, initialBoard)
+
+        when:
+        KhetBoard copy = new KhetBoard(board)
+        KhetBoard parsed = new KhetBoard(10, 8, 2, initialBoard)
+        KhetBoardLayout layout = board.getLayout()
+
+        then:
+        copy.getLayout().is(layout)
+        parsed.getLayout().is(layout)
+        layout.getLayoutChar(0) == '0' as char
+        layout.getLayoutChar(9) == '1' as char
+        layout.getLayoutChar(1) == '1' as char
+        layout.getLayoutChar(2) == '.' as char
+        !layout.isForbidden(0, 0) && layout.isForbidden(0, 1)
+        layout.isForbidden(9, 0) && !layout.isForbidden(9, 1)
+        !layout.isForbidden(2, 0) && !layout.isForbidden(2, 1)
+        KhetBitboard.popCount(layout.getForbiddenMask(0)) == 10
+        KhetBitboard.popCount(layout.getForbiddenMask(1)) == 10
+    }
+
+    def "test laser path"() {
+        setup:
+        KhetBoard board = new KhetBoard(10, 8, 2, initialBoard)
+
+        when:
+        board.fireLaser(0)
+        List<Integer> squares = (0..<board.getLaserPathLength(0)).collect { board.getLaserPathSquare(0, it) }
+
+        then:
+        board.getLaserPathCount() == 1
+        squares == [0, 10, 20, 30, 31, 32, 42, 41, 40, 50, 60, 70]
+        board.getLaserPaths()[0].collect { it.getY() * 10 + it.getX() } == squares
+    }
+
+    def "test laser path reused after moves matches a full trace"() {
+        setup:
+        KhetBoard board = new KhetBoard(10, 8, 2, initialBoard)
+        Random random = new Random(7)
+        int[] moves = new int[200]
+
+        when:
+        boolean allMatch = (0..<60).every { ply ->
+            int playerId = ply % 2
+            int count = KhetMoveGenerator.generateMoves(board, playerId, moves)
+            int move = moves[random.nextInt(count)]
+
+            KhetBoard fullTrace = new KhetBoard(board)  // copies don't keep laser paths
+            fullTrace.applyMove(move)
+            fullTrace.fireLaser(playerId)
+            board.applyMove(move)
+            board.fireLaser(playerId)
+
+            board.getLaserPaths() == fullTrace.getLaserPaths() &&
+                    board.getDestroyedSquare() == fullTrace.getDestroyedSquare() &&
+                    board.toString() == fullTrace.toString()
+        }
+
+        then:
+        allMatch
+    }
+
+    def "test find next piece and laser target"() {
+        setup:
+        KhetBoard board = new KhetBoard(10, 8, 2, initialBoard)
+        String wideInput = (0..<140).collect {
+            it == 0 ? ".SP0E" : it == 68 ? ".PH1N" : it == 139 ? ".SP1W" : "."
+        }.join(",")
+        KhetBoard wide = new KhetBoard(70, 2, 2, wideInput)
+
+        expect:
+        board.findNextPiece(0, KhetLaser.SOUTH) == 30
+        board.findNextPiece(30, KhetLaser.EAST) == 32
+        board.findNextPiece(79, KhetLaser.NORTH) == 49
+        board.findNextPiece(9, KhetLaser.WEST) == 7
+        board.findNextPiece(9, KhetLaser.EAST) == -1
+        board.getLaserTarget(0) == -1
+        wide.findNextPiece(0, KhetLaser.EAST) == 68
+        wide.findNextPiece(69, KhetLaser.WEST) == 68
+        wide.findNextPiece(67, KhetLaser.WEST) == 0
+        wide.findNextPiece(68, KhetLaser.SOUTH) == -1
+        wide.getLaserTarget(0) == 68
+        wide.getLaserTarget(1) == -1
+    }
+
+    def "test board copy"() {
+        setup:
+        KhetBoard board = new KhetBoard(10, 8, 2, initialBoard)
+
+        when:
+        KhetBoard copy = new KhetBoard(board)
+        copy.processMove(new KhetTurnMove(KhetCoordinate.of(4, 3), TurnType.CLOCKWISE), 0)
+        copy.processMove(new KhetMoveMove(KhetCoordinate.of(2, 4), KhetCoordinate.of(1, 5)), 1)
+
+        then:
+        board.toString() == new KhetBoard(10, 8, 2, initialBoard).toString()
+        copy.getPieceAt(KhetCoordinate.of(4, 3)).getOrientation() == KhetPieceOrientation.EAST
+        copy.getPieceAt(KhetCoordinate.of(1, 5)).getType() == KhetPieceType.PYRAMID
+        copy.countPlayerPieces() == board.countPlayerPieces()
+        new KhetBoard(copy).toString() == copy.toString()
+    }
+
+    def "test cached board string"() {
+        setup:
+        KhetBoard board = new KhetBoard(10, 8, 2, initialBoard)
+
+        when:
+        String before = board.toString()
+        board.processMove(new KhetTurnMove(KhetCoordinate.of(4, 3), TurnType.CLOCKWISE), 0)
+        String after = board.toString()
+
+        then:
+        before.is(new KhetBoard(board).toString())
+        after.is(board.toString())
+        after == before.replace(".SC0N,.SC0E", ".SC0E,.SC0E")
+    }
+
+    def "test zobrist hash"() {
+        setup:
+        KhetBoard board = new KhetBoard(10, 8, 2, initialBoard)
+        long initialHash = board.getZobristHash()
+
+        when:
+        KhetBoard turned = new KhetBoard(board)
+        turned.processMove(new KhetTurnMove(KhetCoordinate.of(4, 3), TurnType.CLOCKWISE), 0)
+        long turnedHash = turned.getZobristHash()
+        turned.processMove(new KhetTurnMove(KhetCoordinate.of(4, 3), TurnType.COUNTERCLOCKWISE), 0)
+
+        KhetBoard moved = new KhetBoard(board)
+        moved.processMove(new KhetMoveMove(KhetCoordinate.of(2, 4), KhetCoordinate.of(1, 5)), 1)
+        moved.processMove(new KhetMoveMove(KhetCoordinate.of(7, 6), KhetCoordinate.of(8, 6)), 1)
+
+        KhetBoard transposed = new KhetBoard(board)
+        transposed.processMove(new KhetMoveMove(KhetCoordinate.of(7, 6), KhetCoordinate.of(8, 6)), 1)
+        transposed.processMove(new KhetMoveMove(KhetCoordinate.of(2, 4), KhetCoordinate.of(1, 5)), 1)
+
+        then:
+        turnedHash != initialHash
+        turned.getZobristHash() == initialHash
+        moved.getZobristHash() != initialHash
+        moved.getZobristHash() == transposed.getZobristHash()
+        moved.getZobristHash() == new KhetBoard(10, 8, 2, moved.toString()).getZobristHash()
+        board.getZobristHash(0) != board.getZobristHash(1)
+    }
+
+    def "test make and unmake move"() {
+        setup:
+        String input = "0SP0S,1    ,.    ,.    ,.AN0S,.PH0S,.AN0S,.PY0E,0    ,1    ," +
+                       "0    ,.    ,.PY0S,.    ,.    ,.    ,.    ,.    ,.    ,1    ," +
+                       "0    ,.    ,.PY1S,.PY1E,.    ,.    ,.    ,.    ,.    ,1    ," +
+                       "0PY0N,.    ,.    ,.    ,.SC0N,.SC0E,.    ,.PY0E,.    ,1PY1W," +
+                       "0PY0E,.    ,.PY1W,.    ,.SC1E,.SC1N,.    ,.PY0N,.    ,1PY1S," +
+                       "0    ,.    ,.    ,.    ,.    ,.    ,.PY0E,.    ,.    ,1    ," +
+                       "0    ,.    ,.    ,.    ,.    ,.    ,.    ,.PY1N,.    ,1    ," +
+                       "0    ,1    ,.PY1S,.AN1N,.PH1N,.AN1N,.    ,.    ,0    ,1SP1N"
+        KhetBoard board = new KhetBoard(10, 8, 2, input)
+        String before = board.toString()
+        long hashBefore = board.getZobristHash()
+        int[] moves = new int[200]
+        int count = KhetMoveGenerator.generateMoves(board, 0, moves)
+
+        when:
+        long undo = board.makeMove(KhetMoveGenerator.encodeMove(4, 3), 0)
+        String after = board.toString()
+        int[] piecesAfter = board.countPlayerPieces()
+        board.unmakeMove(undo)
+
+        boolean allRestored = (0..<count).every {
+            long u = board.makeMove(moves[it], 0)
+            board.unmakeMove(u)
+            board.toString() == before && board.getZobristHash() == hashBefore
+        }
+
+        then:
+        KhetUndo.getDestroyedSquare(undo) == 42
+        KhetUndo.getDestroyedPiece(undo).toString() == "PY1W"
+        after.contains("0PY0E,.,.,.,.SC1E")
+        piecesAfter == [13, 12] as int[]
+        board.toString() == before
+        board.getZobristHash() == hashBefore
+        board.countPlayerPieces() == [13, 13] as int[]
+        board.getPieceCount(1) == 13
+        allRestored
+    }
+
+    def "test unmake move after a shot that destroys several pieces"() {
+        setup:
+        KhetBoard board = new KhetBoard(3, 3, 2, "0SP0S,0SP0S,.PH0N,.PY1S,.PY1S,.,.,.PH1N,1SP1N")
+        String before = board.toString()
+        long hashBefore = board.getZobristHash()
+
+        when:
+        long first = board.makeMove(KhetMoveGenerator.encodeTurn(2, TurnType.CLOCKWISE), 0)
+        int[] piecesAfter = board.countPlayerPieces()
+        long second = board.makeMove(KhetMoveGenerator.encodeTurn(7, TurnType.CLOCKWISE), 1)
+        board.unmakeMove(second)
+        board.unmakeMove(first)
+
+        then:
+        piecesAfter == [3, 2] as int[]
+        KhetUndo.getDestroyedSquare(first) == 4
+        board.toString() == before
+        board.getZobristHash() == hashBefore
+        board.getPieceCount(1) == 4
+    }
+
+    def "test make and unmake a shot on the biggest board"() {
+        setup:
+        Map<Integer, String> pieces = [0: ".PH0N", 5: ".SC0N", 51000: ".SP0E", 51100: ".PH1N",
+                                       65023: ".PH1N", 65024: ".SP1N"]
+        KhetBoard board = new KhetBoard(255, 255, 2, (0..<255 * 255).collect { pieces[it] ?: "." }.join(","))
+        String before = board.toString()
+        long hashBefore = board.getZobristHash()
+
+        when:
+        long undo = board.makeMove(KhetMoveGenerator.encodeTurn(5, TurnType.CLOCKWISE), 0)
+        int[] piecesAfter = board.countPlayerPieces()
+        board.unmakeMove(undo)
+
+        then:
+        KhetUndo.getDestroyedSquare(undo) == 51100
+        KhetUndo.getDestroyedPiece(undo).toString() == "PH1N"
+        piecesAfter == [3, 2] as int[]
+        board.toString() == before
+        board.getZobristHash() == hashBefore
+    }
+
+    def "test make move rejects boards with too many squares for the move encoding"() {
+        setup:
+        KhetBoard board = new KhetBoard(300, 300, 2, ([".SP0S", ".PH0N"] + ["."] * (300 * 300 - 2)).join(","))
+
+        when:
+        board.makeMove(KhetMoveGenerator.encodeTurn(1, TurnType.CLOCKWISE), 0)
+
+        then:
+        thrown(IllegalArgumentException)
+    }
+
+    def "test piece lists and sphinx squares"() {
+        setup:
+        String input = "0SP0S,1    ,.    ,.    ,.AN0S,.PH0S,.AN0S,.PY0E,0    ,1    ," +
+                       "0    ,.    ,.PY0S,.    ,.    ,.    ,.    ,.    ,.    ,1    ," +
+                       "0    ,.    ,.PY1S,.PY1E,.    ,.    ,.    ,.    ,.    ,1    ," +
+                       "0PY0N,.    ,.    ,.    ,.SC0N,.SC0E,.    ,.PY0E,.    ,1PY1W," +
+                       "0PY0E,.    ,.PY1W,.    ,.SC1E,.SC1N,.    ,.PY0N,.    ,1PY1S," +
+                       "0    ,.    ,.    ,.    ,.    ,.    ,.PY0E,.    ,.    ,1    ," +
+                       "0    ,.    ,.    ,.    ,.    ,.    ,.    ,.PY1N,.    ,1    ," +
+                       "0    ,1    ,.PY1S,.AN1N,.PH1N,.AN1N,.    ,.    ,0    ,1SP1N"
+        KhetBoard board = new KhetBoard(10, 8, 2, input)
+
+        when:
+        board.makeMove(KhetMoveGenerator.encodeMove(4, 3), 0)  // laser destroys the pyramid on 42
+        board.applyMove(KhetMoveGenerator.encodeMove(34, 23))  // scarab swaps with a pyramid
+        List<Integer> squares0 = board.getPieceSquares(0)[0..<board.getPieceCount(0)] as List
+        List<Integer> squares1 = board.getPieceSquares(1)[0..<board.getPieceCount(1)] as List
+
+        then:
+        squares0.sort() == [0, 3, 5, 6, 7, 12, 23, 30, 35, 37, 40, 47, 56]
+        squares1.sort() == [22, 34, 39, 44, 45, 49, 67, 72, 73, 74, 75, 79]
+        board.getSphinxCount(0) == 1
+        board.getSphinxSquare(0, 0) == 0
+        board.getSphinxCount(1) == 1
+        board.getSphinxSquare(1, 0) == 79
+    }
+
+    @Unroll
+    def "test validate move '#input' of player #playerId"() {
+        setup:
+        KhetBoard board = new KhetBoard(10, 8, 2, initialBoard)
+        KhetMove move = new KhetMoveDeserializer().traverse(input)
+
+        when:
+        KhetMoveResult validated = board.validateMove(move, playerId)
+        String afterValidate = board.toString()
+        KhetMoveResult performed = board.performMove(move, playerId)
+
+        then:
+        validated == result
+        performed == result
+        afterValidate == initialBoard.replaceAll(" ", "")
+        (board.toString() != afterValidate) == result.isValid()
+        move.getException() == null || result == KhetMoveResult.ALREADY_INVALID
+
+        where:
+        input            | playerId | result
+        "move 4,3 4,2"   | 0        | KhetMoveResult.VALID
+        "move 4,3 3,2"   | 0        | KhetMoveResult.VALID
+        "turn 0,0 ccw"   | 0        | KhetMoveResult.VALID
+        "move x"         | 0        | KhetMoveResult.ALREADY_INVALID
+        "move 10,0 9,0"  | 0        | KhetMoveResult.FROM_OUTSIDE_BOARD
+        "move 1,1 1,2"   | 0        | KhetMoveResult.NO_PIECE
+        "move 9,7 8,7"   | 0        | KhetMoveResult.NOT_OWN_PIECE
+        "move 0,0 1,0"   | 0        | KhetMoveResult.SPHINX_MOVE
+        "move 4,3 4,5"   | 0        | KhetMoveResult.NOT_NEIGHBORING
+        "move 0,3 -1,3"  | 0        | KhetMoveResult.TO_OUTSIDE_BOARD
+        "move 7,6 8,7"   | 1        | KhetMoveResult.FORBIDDEN_SQUARE
+        "move 7,0 6,0"   | 0        | KhetMoveResult.OCCUPIED_SQUARE
+        "move 4,3 5,3"   | 0        | KhetMoveResult.CANT_SWITCH
+        "turn 0,0 cw"    | 0        | KhetMoveResult.SPHINX_NOT_FACING_BOARD
+    }
+
+    @Unroll
+    def "test invalid board string #description"() {
+        when:
+        new KhetBoard(3, 2, 2, input)
+
+        then:
+        RuntimeException ex = thrown()
+        ex.getMessage() == message
+
+        where:
+        description      | input                             | message
+        "too few cells"  | "0SP0S,.,.,.,1SP1N"               | "Board string has 5 cells, expected 6 for a 3x2 board"
+        "too many cells" | "0SP0S,.,.,.,.,1SP1N,."           | "Board string has more than 6 cells, cell 6 starts at character 20"
+        "cell length"    | "0SP0S,.,.PY,.,.,1SP1N"           | "Field string not of correct length '.PY' at cell 2 (character 8)"
+        "unknown piece"  | "0SP0S,.,.XX0N,.,.,1SP1N"         | "Unknown piece 'XX0N' at cell 2 (character 9)"
+    }
+
+    def "test board string with whitespace and trailing commas"() {
+        when:
+        KhetBoard board = new KhetBoard(3, 2, 2, " 0SP0S ,.    ,\t.,.PY0N,.,1SP1N,,")
+
+        then:
+        board.toString() == "0SP0S,.,.,.PY0N,.,1SP1N"
+    }
+
+    def "test coordinates"() {
+        when:
+        KhetMoveMove move = new KhetMoveDeserializer().traverse("move 4,3 3,2")
+
+        then:
+        move.getFromCoordinate().is(KhetCoordinate.of(4, 3))
+        move.getToCoordinate().is(KhetCoordinate.ofSquare(23, 10))
+        KhetCoordinate.of(300, 2) == KhetCoordinate.of(300, 2)
+        KhetCoordinate.of(-1, 0) == KhetPieceOrientation.WEST.getDirection()
+        KhetCoordinate.of(4, 3).toString() == "4,3"
     }
 }
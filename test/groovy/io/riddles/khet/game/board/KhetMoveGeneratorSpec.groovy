@@ -0,0 +1,114 @@
+package io.riddles.khet.game.board
+
+import io.riddles.khet.game.move.KhetMove
+import io.riddles.khet.game.move.KhetMoveMove
+import io.riddles.khet.game.move.KhetTurnMove
+import io.riddles.khet.game.move.TurnType
+import spock.lang.Specification
+
+/**
+ * io.riddles.khet.game.board.KhetMoveGeneratorSpec - Created on 18-10-26
+ *
+ * [description]
+ *
+ * @author Jim van Eeden - jim@riddles.io
+ */
+class KhetMoveGeneratorSpec extends Specification {
+
+    String initialBoard = "0SP0S,1    ,.    ,.    ,.AN0S,.PH0S,.AN0S,.PY0E,0    ,1    ," +
+                          "0    ,.    ,.PY0S,.    ,.    ,.    ,.    ,.    ,.    ,1    ," +
+                          "0    ,.    ,.    ,.PY1E,.    ,.    ,.    ,.    ,.    ,1    ," +
+                          "0PY0N,.    ,.PY1S,.    ,.SC0N,.SC0E,.    ,.PY0E,.    ,1PY1W," +
+                          "0PY0E,.    ,.PY1W,.    ,.SC1E,.SC1N,.    ,.PY0N,.    ,1PY1S," +
+                          "0    ,.    ,.    ,.    ,.    ,.    ,.PY0E,.    ,.    ,1    ," +
+                          "0    ,.    ,.    ,.    ,.    ,.    ,.    ,.PY1N,.    ,1    ," +
+                          "0    ,1    ,.PY1S,.AN1N,.PH1N,.AN1N,.    ,.    ,0    ,1SP1N"
+
+    def "test generated moves are exactly the valid moves"() {
+        setup:
+        KhetBoard board = new KhetBoard(10, 8, 2, initialBoard)
+        int[] moves = new int[13 * KhetMoveGenerator.MAX_MOVES_PER_PIECE]
+
+        when:
+        int count = KhetMoveGenerator.generateMoves(board, playerId, moves)
+        Set<String> generated = (0..<count).collect { KhetMoveGenerator.toString(moves[it], 10) } as Set
+        Set<String> valid = validMoves(board, playerId)
+
+        then:
+        generated.size() == count
+        generated == valid
+
+        where:
+        playerId << [0, 1]
+    }
+
+    def "test move encoding"() {
+        when:
+        int move = KhetMoveGenerator.encodeMove(43, 54)
+        int turn = KhetMoveGenerator.encodeTurn(79, TurnType.COUNTERCLOCKWISE)
+
+        then:
+        KhetMoveGenerator.getFromSquare(move) == 43
+        KhetMoveGenerator.getToSquare(move) == 54
+        !KhetMoveGenerator.isTurn(move)
+        KhetMoveGenerator.getTurnType(move) == null
+        KhetMoveGenerator.toString(move, 10) == "move 3,4 4,5"
+        KhetMoveGenerator.getFromSquare(turn) == 79
+        KhetMoveGenerator.isTurn(turn)
+        KhetMoveGenerator.getTurnType(turn) == TurnType.COUNTERCLOCKWISE
+        KhetMoveGenerator.toString(turn, 10) == "turn 9,7 ccw"
+    }
+
+    def "test generated moves on a board with more squares than fit in 14 bits"() {
+        setup:
+        Map<Integer, String> pieces = [0: ".SP0S", 1: ".PH0N", 16150: ".SC0N", 19998: ".PH1N", 19999: ".SP1N"]
+        KhetBoard board = new KhetBoard(200, 100, 2, (0..<200 * 100).collect { pieces[it] ?: "." }.join(","))
+        int[] moves = new int[3 * KhetMoveGenerator.MAX_MOVES_PER_PIECE]
+        Set<String> scarabMoves = [[-1, 0, 1], [-1, 0, 1]].combinations().findAll { it != [0, 0] }
+                .collect { "move 150,80 ${150 + it[0]},${80 + it[1]}".toString() } as Set
+
+        when:
+        int count = KhetMoveGenerator.generateMoves(board, 0, moves)
+        Set<String> generated = (0..<count).collect { KhetMoveGenerator.toString(moves[it], 200) } as Set
+
+        then:
+        generated.size() == count
+        generated == (["turn 0,0 ccw", "move 1,0 2,0", "move 1,0 0,1", "move 1,0 1,1", "move 1,0 2,1",
+                       "turn 1,0 cw", "turn 1,0 ccw", "turn 150,80 cw", "turn 150,80 ccw"] as Set) + scarabMoves
+    }
+
+    def "test boards with too many squares for the move encoding are rejected"() {
+        setup:
+        KhetBoard board = new KhetBoard(300, 300, 2, ([".SP0S", ".PH0N"] + ["."] * (300 * 300 - 2)).join(","))
+
+        when:
+        KhetMoveGenerator.generateMoves(board, 0, new int[20])
+
+        then:
+        thrown(IllegalArgumentException)
+    }
+
+    private static Set<String> validMoves(KhetBoard board, int playerId) {
+        Set<String> valid = new HashSet<>()
+
+        for (int x = 0; x < board.getWidth(); x++) {
+            for (int y = 0; y < board.getHeight(); y++) {
+                for (int toX = x - 1; toX <= x + 1; toX++) {
+                    for (int toY = y - 1; toY <= y + 1; toY++) {
+                        KhetMove move = new KhetMoveMove(KhetCoordinate.of(x, y), KhetCoordinate.of(toX, toY))
+                        new KhetBoard(board).processMove(move, playerId)
+                        if (!move.isInvalid()) valid.add("move $x,$y $toX,$toY".toString())
+                    }
+                }
+
+                for (TurnType turnType : TurnType.values()) {
+                    KhetMove move = new KhetTurnMove(KhetCoordinate.of(x, y), turnType)
+                    new KhetBoard(board).processMove(move, playerId)
+                    if (!move.isInvalid()) valid.add("turn $x,$y ${turnType.toString().toLowerCase()}".toString())
+                }
+            }
+        }
+
+        return valid
+    }
+}
@@ -0,0 +1,42 @@
+package io.riddles.khet.game.board.piece
+
+import io.riddles.khet.game.move.TurnType
+import spock.lang.Specification
+
+/**
+ * io.riddles.khet.game.board.piece.KhetPieceSpec - Created on 18-10-26
+ *
+ * [description]
+ *
+ * @author Jim van Eeden - jim@riddles.io
+ */
+class KhetPieceSpec extends Specification {
+
+    def "test pieces are canonical"() {
+        expect:
+        KhetPiece.fromString("PY1W").is(KhetPiece.of(KhetPieceType.PYRAMID, 1, KhetPieceOrientation.WEST))
+        KhetPiece.fromString("py1w").is(KhetPiece.fromString("PY1W"))
+        KhetPiece.fromCode(KhetPiece.fromString("SC0E").getCode()).is(KhetPiece.fromString("SC0E"))
+        KhetPiece.fromString("AN0S").toString() == "AN0S"
+        KhetPiece.fromString("    ") == null
+    }
+
+    def "test turning returns canonical piece"() {
+        setup:
+        KhetPiece piece = KhetPiece.fromString("PY0N")
+
+        expect:
+        piece.turn(TurnType.CLOCKWISE).is(KhetPiece.fromString("PY0E"))
+        piece.turn(TurnType.COUNTERCLOCKWISE).is(KhetPiece.fromString("PY0W"))
+        piece.getOrientation() == KhetPieceOrientation.NORTH
+    }
+
+    def "test unknown piece"() {
+        when:
+        KhetPiece.fromString("XX0N")
+
+        then:
+        IllegalArgumentException ex = thrown()
+        ex.getMessage() == "Unknown piece 'XX0N'"
+    }
+}
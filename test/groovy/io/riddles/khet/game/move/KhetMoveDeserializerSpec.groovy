@@ -0,0 +1,57 @@
+package io.riddles.khet.game.move
+
+import io.riddles.javainterface.exception.InvalidInputException
+import io.riddles.khet.game.board.KhetCoordinate
+import spock.lang.Specification
+import spock.lang.Unroll
+
+/**
+ * io.riddles.khet.game.move.KhetMoveDeserializerSpec - Created on 18-10-26
+ *
+ * [description]
+ *
+ * @author Jim van Eeden - jim@riddles.io
+ */
+class KhetMoveDeserializerSpec extends Specification {
+
+    def "test valid moves"() {
+        setup:
+        KhetMoveDeserializer deserializer = new KhetMoveDeserializer()
+
+        when:
+        KhetMoveMove move = deserializer.traverse("move 4,3 -3,+2  ") as KhetMoveMove
+        KhetTurnMove turn = deserializer.traverse("TURN 0,7,9 Ccw") as KhetTurnMove
+
+        then:
+        !move.isInvalid()
+        move.getFromCoordinate() == KhetCoordinate.of(4, 3)
+        move.getToCoordinate() == KhetCoordinate.of(-3, 2)
+        !turn.isInvalid()
+        turn.getFromCoordinate() == KhetCoordinate.of(0, 7)
+        turn.getTurnType() == TurnType.COUNTERCLOCKWISE
+    }
+
+    @Unroll
+    def "test invalid move '#input'"() {
+        setup:
+        KhetMove move = new KhetMoveDeserializer().traverse(input)
+
+        expect:
+        move.isInvalid()
+        move.getMoveType() == null || move.getMoveType() == MoveType.NONE
+        move.getException().getMessage() == new InvalidInputException(message).getMessage()
+
+        where:
+        input                     | message
+        null                      | "Failed to parse move"
+        ""                        | "Move doesn't split into 3 parts"
+        "   "                     | "Failed to parse move"
+        " move 1,2 3,4"           | "Move doesn't split into 3 parts"
+        "move  1,2 3,4"           | "Move doesn't split into 3 parts"
+        "jump 1,2 3,4"            | "Move type jump not recognized"
+        "move 1,,2 3,4"           | "Failed to parse coordinate 1,,2"
+        "move 1,2 3,"             | "Failed to parse coordinate 3,"
+        "move 2147483648,0 0,0"   | "Failed to parse coordinate 2147483648,0"
+        "turn 1,2 left"           | "Unknown turn type left"
+    }
+}
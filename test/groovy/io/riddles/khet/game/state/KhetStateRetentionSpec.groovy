@@ -0,0 +1,91 @@
+package io.riddles.khet.game.state
+
+import io.riddles.javainterface.game.player.PlayerProvider
+import io.riddles.khet.bot.KhetRandomBot
+import io.riddles.khet.engine.KhetEngine
+import io.riddles.khet.game.KhetSerializer
+import io.riddles.khet.game.player.KhetPlayer
+import io.riddles.khet.game.processor.KhetProcessor
+import io.riddles.khet.tournament.KhetBotIOHandler
+import org.json.JSONObject
+import spock.lang.Specification
+import spock.lang.Unroll
+
+/**
+ * io.riddles.khet.game.state.KhetStateRetentionSpec - Created on 18-10-26
+ *
+ * [description]
+ *
+ * @author Jim van Eeden - jim@riddles.io
+ */
+class KhetStateRetentionSpec extends Specification {
+
+    @Unroll
+    def "test game with #retention retention serializes like full history"() {
+        setup:
+        Map full = playGame(KhetStateRetention.keepAll())
+        Map retained = playGame(retention)
+
+        when:
+        String expected = new KhetSerializer().traverseToString(
+                full.processor as KhetProcessor, full.initialState as KhetState)
+        String actual = new KhetSerializer().traverseToString(
+                retained.processor as KhetProcessor, retained.initialState as KhetState)
+
+        then:
+        new JSONObject(actual).similar(new JSONObject(expected))
+
+        where:
+        retention << [
+                KhetStateRetention.snapshots(8),
+                KhetStateRetention.lastStates(3),
+                new KhetStateRetention(5, 2)
+        ]
+    }
+
+    def "test only retained states keep their board"() {
+        setup:
+        KhetBoardCounter counter = new KhetBoardCounter(playGame(KhetStateRetention.lastStates(2)).initialState as KhetState)
+
+        expect:
+        counter.statesWithBoard == [0, counter.stateCount - 2, counter.stateCount - 1]
+    }
+
+    private static class KhetBoardCounter {
+        int stateCount = 0
+        List<Integer> statesWithBoard = []
+
+        KhetBoardCounter(KhetState state) {
+            while (state != null) {
+                if (state.@board != null) {
+                    statesWithBoard.add(state.getStateIndex())
+                }
+                stateCount++
+                state = state.getNextState() as KhetState
+            }
+        }
+    }
+
+    private static Map playGame(KhetStateRetention retention) {
+        PlayerProvider<KhetPlayer> playerProvider = new PlayerProvider<>()
+        for (int id = 0; id < 2; id++) {
+            KhetPlayer player = new KhetPlayer(id)
+            player.setIoHandler(new KhetBotIOHandler(id, new KhetRandomBot(new Random(id + 5))))
+            player.sendSetting("board_width", 10)
+            player.sendSetting("board_height", 8)
+            playerProvider.add(player)
+        }
+
+        KhetProcessor processor = new KhetProcessor(playerProvider, 30)
+        KhetState initialState = KhetEngine.createInitialState(10, 8, playerProvider.getPlayers())
+        initialState.setRetention(retention)
+
+        KhetState state = initialState
+        int roundNumber = 0
+        while (!processor.hasGameEnded(state)) {
+            state = processor.createNextState(state, ++roundNumber)
+        }
+
+        return [processor: processor, initialState: initialState]
+    }
+}
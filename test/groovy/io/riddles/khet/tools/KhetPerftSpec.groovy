@@ -0,0 +1,48 @@
+package io.riddles.khet.tools
+
+import io.riddles.khet.engine.KhetEngine
+import io.riddles.khet.game.board.KhetBoard
+import spock.lang.Specification
+
+import java.util.concurrent.ForkJoinPool
+
+/**
+ * io.riddles.khet.tools.KhetPerftSpec - Created on 18-10-26
+ *
+ * [description]
+ *
+ * @author Jim van Eeden - jim@riddles.io
+ */
+class KhetPerftSpec extends Specification {
+
+    def "test perft node counts from the starting position"() {
+        setup:
+        KhetBoard board = new KhetBoard(10, 8, 2, KhetEngine.getStartingBoardString())
+
+        expect:
+        new KhetPerft(board, depth).perft(board, 0, depth) == nodes
+
+        where:
+        depth | nodes
+        0     | 1
+        1     | 81
+        2     | 6546
+        3     | 526022
+    }
+
+    def "test divide and parallel divide"() {
+        setup:
+        KhetBoard board = new KhetBoard(10, 8, 2, KhetEngine.getStartingBoardString())
+        String before = board.toString()
+
+        when:
+        Map<Integer, Long> divide = new KhetPerft(board, 2).divide(board, 0, 2)
+        Map<Integer, Long> parallel = KhetPerft.parallelDivide(board, 0, 2, new ForkJoinPool(2))
+
+        then:
+        divide.size() == 81
+        divide.values().sum() == 6546
+        parallel == divide
+        board.toString() == before
+    }
+}
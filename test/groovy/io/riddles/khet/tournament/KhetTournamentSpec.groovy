@@ -0,0 +1,46 @@
+package io.riddles.khet.tournament
+
+import io.riddles.khet.bot.KhetBot
+import io.riddles.khet.bot.KhetRandomBot
+import io.riddles.khet.game.board.KhetBoard
+import spock.lang.Specification
+
+import java.util.function.Supplier
+
+/**
+ * io.riddles.khet.tournament.KhetTournamentSpec - Created on 18-10-26
+ *
+ * [description]
+ *
+ * @author Jim van Eeden - jim@riddles.io
+ */
+class KhetTournamentSpec extends Specification {
+
+    def "test tournament aggregates all matches"() {
+        setup:
+        Supplier<KhetBot> randomBot = { new KhetRandomBot(new Random(1)) } as Supplier<KhetBot>
+        KhetTournament tournament = new KhetTournament(10, 8, 20, 4)
+
+        when:
+        KhetTournamentResult result = tournament.run(randomBot, randomBot, 40)
+
+        then:
+        result.getMatchCount() == 40
+        result.getWins() + result.getDraws() + result.getLosses() == 40
+        result.getMinRounds() >= 1
+        result.getMaxRounds() <= 20
+    }
+
+    def "test invalid move loses the match"() {
+        setup:
+        KhetBot invalidBot = { KhetBoard board, int botId, int round -> "move 0,0 0,1" } as KhetBot
+        KhetBot randomBot = new KhetRandomBot(new Random(1))
+
+        when:
+        KhetMatchResult result = new KhetMatch(10, 8, 100).play(invalidBot, randomBot)
+
+        then:
+        result.getWinnerId() == 1
+        result.getRounds() == 1
+    }
+}